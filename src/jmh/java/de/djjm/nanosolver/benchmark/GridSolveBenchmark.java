@@ -0,0 +1,79 @@
+package de.djjm.nanosolver.benchmark;
+
+import de.djjm.nanosolver.io.LinePuzzleReader;
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.io.PuzzleReader;
+import de.djjm.nanosolver.matrix.LineSchedule;
+import de.djjm.nanosolver.matrix.Nonogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures solving a whole grid with {@link Nonogram#solveStep()} until the line logic reaches its fixpoint.
+ * The grids are read from {@code grids.txt}: small is the 10x10 puzzle of {@code Main}, medium the 45x30 puzzle of Frank
+ * Sternfeld and large a generated 100x100 image. The schedule compares the orders the lines of a step are solved in.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GridSolveBenchmark {
+    private static final String GRIDS = "grids.txt";
+
+    @Param({"small", "medium", "large"})
+    public String grid;
+
+    @Param({"INFORMATION_GAIN", "SLACK", "ROUND_ROBIN"})
+    public LineSchedule schedule;
+
+    private Puzzle puzzle;
+
+    @Setup
+    public void readGrid() throws IOException {
+        try (PuzzleReader reader = new LinePuzzleReader(new InputStreamReader(
+                GridSolveBenchmark.class.getResourceAsStream(GRIDS), StandardCharsets.UTF_8))) {
+            Puzzle next;
+            while ((next = reader.next()) != null) {
+                if (next.name().equals(grid)) {
+                    puzzle = next;
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("The grid " + grid + " is missing in " + GRIDS);
+    }
+
+    @Benchmark
+    public Nonogram create() {
+        return puzzle.toNonogram();
+    }
+
+    /**
+     * solves the grid until a step does not change it anymore
+     */
+    @Benchmark
+    public Nonogram solveToFixpoint() {
+        Nonogram nonogram = puzzle.toNonogram();
+        nonogram.setLineSchedule(schedule);
+        while (nonogram.solveStep()) {
+            // solve until nothing changes
+        }
+        return nonogram;
+    }
+}
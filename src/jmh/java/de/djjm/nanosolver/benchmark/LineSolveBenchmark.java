@@ -0,0 +1,58 @@
+package de.djjm.nanosolver.benchmark;
+
+import de.djjm.nanosolver.matrix.NonoLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link NonoLine#solveStep()} on the problem lines of {@code Main}.
+ * A line is changed by solving it, so every invocation parses a fresh line; {@link #parse()} measures this part alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LineSolveBenchmark {
+    @Param({
+        "I?#??###############??#####?##?I 2 16 5 3",
+        "I????????##??????##?#?#???  # ?#?  #####    ?#I 2 4 2 3 1 2 5 1",
+        "I   ## ????????? ?????#    ###?I 2 3 6 4"
+    })
+    public String line;
+
+    @Benchmark
+    public NonoLine parse() {
+        return new NonoLine(line);
+    }
+
+    /**
+     * solves the line until a step does not change it anymore
+     */
+    @Benchmark
+    public NonoLine solveToFixpoint() {
+        NonoLine nonoLine = new NonoLine(line);
+        while (nonoLine.solveStep()) {
+            // solve until nothing changes
+        }
+        return nonoLine;
+    }
+
+    @Benchmark
+    public NonoLine solveOneStep() {
+        NonoLine nonoLine = new NonoLine(line);
+        nonoLine.solveStep();
+        return nonoLine;
+    }
+}
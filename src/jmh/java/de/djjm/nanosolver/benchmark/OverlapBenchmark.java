@@ -0,0 +1,114 @@
+package de.djjm.nanosolver.benchmark;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.OverlapKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CellLine#tryApplyOverlap(long[], long[])}, which a line calls in every solve step, with the kernel
+ * chosen for the platform and with the scalar and the vector {@link OverlapKernel} explicitly. Every invocation works on
+ * a fresh copy of a line with random clue ranges, {@link #copy()} measures the copy alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class OverlapBenchmark {
+    private static final int MAX_CLUE_LENGTH = 8;
+    private static final int SLACK = 4;
+
+    @Param({"256", "1024", "2048"})
+    public int length;
+
+    private CellLine line;
+    private OverlapKernel vectorKernel;
+    /**
+     * lowest start, highest end, start and end of the overlap of every clue
+     */
+    private int[] ranges;
+    private long[] required;
+    private long[] reachable;
+
+    @Setup
+    public void createLine() {
+        Random random = new Random(length);
+        line = new CellLine(length);
+        int[] positions = new int[4 * length];
+        int count = 0;
+        int position = 0;
+        while (position + MAX_CLUE_LENGTH + SLACK < length) {
+            int clueLength = 1 + random.nextInt(MAX_CLUE_LENGTH);
+            int highestEnd = position + clueLength - 1 + SLACK;
+            positions[count++] = position;
+            positions[count++] = highestEnd;
+            positions[count++] = highestEnd - clueLength + 1;
+            positions[count++] = position + clueLength - 1;
+            position += clueLength + 1 + random.nextInt(2 * SLACK);
+        }
+        ranges = Arrays.copyOf(positions, count);
+        required = new long[CellLine.wordCount(length)];
+        reachable = new long[CellLine.wordCount(length)];
+        vectorKernel = OverlapKernel.best();
+        if (vectorKernel == OverlapKernel.SCALAR) {
+            throw new IllegalStateException("The Vector API is not available");
+        }
+    }
+
+    @Benchmark
+    public CellLine copy() {
+        return new CellLine(line);
+    }
+
+    @Benchmark
+    public CellLine bestKernel() {
+        CellLine cells = new CellLine(line);
+        markRanges();
+        cells.tryApplyOverlap(required, reachable);
+        return cells;
+    }
+
+    @Benchmark
+    public CellLine scalarKernel() {
+        return wholeLine(OverlapKernel.SCALAR);
+    }
+
+    @Benchmark
+    public CellLine vectorKernel() {
+        return wholeLine(vectorKernel);
+    }
+
+    private CellLine wholeLine(OverlapKernel kernel) {
+        CellLine cells = new CellLine(line);
+        markRanges();
+        cells.tryApplyOverlap(required, reachable, kernel);
+        return cells;
+    }
+
+    /**
+     * marks the overlap and the reachable cells of every clue like a line does before it applies them
+     */
+    private void markRanges() {
+        Arrays.fill(required, 0L);
+        Arrays.fill(reachable, 0L);
+        for (int i = 0; i < ranges.length; i += 4) {
+            CellLine.setRange(required, ranges[i + 2], ranges[i + 3]);
+            CellLine.setRange(reachable, ranges[i], ranges[i + 1]);
+        }
+    }
+}
@@ -2,8 +2,18 @@ package de.djjm.nanosolver;
 
 import de.djjm.nanosolver.matrix.NonoLine;
 import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.SolverMetrics;
+import de.djjm.nanosolver.search.BacktrackingSolver;
+import de.djjm.nanosolver.search.ProbingSolver;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class Main {
+    private static final int SPEEDUP_ROUNDS = 50;
+
     public static void main(String[] args) {
         //Nonogram ng = new Nonogram(new Integer[][]{{1},{3},{2}},new Integer[][]{{1},{3},{2}});
         Nonogram ng = new Nonogram(
@@ -71,7 +81,7 @@ public class Main {
                 {4}
         }
         );*/
-        Nonogram frankSternfeld = new Nonogram(
+        Supplier<Nonogram> frankSternfeldSupplier = () -> new Nonogram(
             new Integer[][]{
                 {10},
                 {2, 7},
@@ -151,6 +161,7 @@ public class Main {
                 {15, 3}
             }
         );
+        Nonogram frankSternfeld = frankSternfeldSupplier.get();
         NonoLine frankSternfeldProblemLine = new NonoLine("I?#??###############??#####?##?I 2 16 5 3");
         NonoLine line = new NonoLine("I????????##??????##?#?#???  # ?#?  #####    ?#I 2 4 2 3 1 2 5 1");
         NonoLine borderTestLine = new NonoLine("I   ?I 1");
@@ -158,17 +169,44 @@ public class Main {
 
         boolean calcNonogram = true;
         Nonogram nonogramToSolve = frankSternfeld;
+        boolean probeIfStalled = false;
+        boolean searchIfStalled = true;
+        boolean checkUniqueness = false;
+        boolean printMetrics = false;
         boolean calcNonoline = false;
         NonoLine nonolineToSolve = line;
+        boolean compareParallel = false;
+        Supplier<Nonogram> nonogramToCompare = frankSternfeldSupplier;
+        SolverMetrics metrics = new SolverMetrics();
+        if (printMetrics) {
+            nonogramToSolve.setSolverListener(metrics);
+        }
         if (calcNonogram) {
             System.out.println("Nonogram");
             while (nonogramToSolve.solveStep()) {
                 System.out.println(nonogramToSolve); //Problem in 9th iteration
             }
+            if (probeIfStalled && !nonogramToSolve.isSolved()) {
+                ProbingSolver probingSolver = new ProbingSolver(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+                System.out.println("Line logic stalled, probing: " + probingSolver.solve(nonogramToSolve) +
+                        " after " + probingSolver.getProbeCount() + " probes" +
+                        (probingSolver.isContradiction() ? ", the nonogram has no solution" : ""));
+            }
+            if (searchIfStalled && !nonogramToSolve.isSolved()) {
+                System.out.println("Line logic stalled, searching: " + new BacktrackingSolver().solve(nonogramToSolve));
+            }
             System.out.println("----------------------------------");
             System.out.println(nonogramToSolve);
         }
 
+        if (printMetrics) {
+            System.out.println(metrics);
+        }
+
+        if (checkUniqueness) {
+            System.out.println("Unique solution: " + new BacktrackingSolver().isUnique(nonogramToSolve));
+        }
+
         if (calcNonoline) {
             System.out.println("NonoLine");
             System.out.println(nonolineToSolve);
@@ -178,5 +216,39 @@ public class Main {
             System.out.println("----------------------------------");
             System.out.println(nonolineToSolve);
         }
+
+        if (compareParallel) {
+            System.out.println("Parallel speed-up");
+            printParallelSpeedup(nonogramToCompare, ForkJoinPool.commonPool());
+        }
+    }
+
+    /**
+     * solves the nonogram several times sequentially and in parallel and prints the average times
+     */
+    private static void printParallelSpeedup(Supplier<Nonogram> nonogramSupplier, ExecutorService executor) {
+        // the first rounds warm up the JIT
+        measureSolveNanos(nonogramSupplier, null);
+        measureSolveNanos(nonogramSupplier, executor);
+        long sequentialNanos = measureSolveNanos(nonogramSupplier, null);
+        long parallelNanos = measureSolveNanos(nonogramSupplier, executor);
+        System.out.printf(Locale.ROOT, "sequential: %.3f ms%n", sequentialNanos / 1e6);
+        System.out.printf(Locale.ROOT, "parallel:   %.3f ms%n", parallelNanos / 1e6);
+        System.out.printf(Locale.ROOT, "speed-up:   %.2f%n", (double) sequentialNanos / parallelNanos);
+    }
+
+    /**
+     * @return the average time in nanoseconds to solve the nonogram
+     */
+    private static long measureSolveNanos(Supplier<Nonogram> nonogramSupplier, ExecutorService executor) {
+        long totalNanos = 0;
+        for (int i = 0; i < SPEEDUP_ROUNDS; i++) {
+            Nonogram nonogram = nonogramSupplier.get();
+            nonogram.setExecutor(executor);
+            long start = System.nanoTime();
+            nonogram.solve();
+            totalNanos += System.nanoTime() - start;
+        }
+        return totalNanos / SPEEDUP_ROUNDS;
     }
 }
\ No newline at end of file
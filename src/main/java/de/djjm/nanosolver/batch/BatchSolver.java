@@ -0,0 +1,290 @@
+package de.djjm.nanosolver.batch;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.io.PuzzleFormat;
+import de.djjm.nanosolver.io.PuzzleReader;
+import de.djjm.nanosolver.matrix.LineSchedule;
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.SolverListener;
+import de.djjm.nanosolver.matrix.SolverMetrics;
+import de.djjm.nanosolver.matrix.solver.LineSolutionCache;
+import de.djjm.nanosolver.portfolio.PortfolioResult;
+import de.djjm.nanosolver.portfolio.PortfolioSolver;
+import de.djjm.nanosolver.portfolio.SolverStrategy;
+import de.djjm.nanosolver.search.BacktrackingSolver;
+import de.djjm.nanosolver.search.ProbingSolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Solves a stream of puzzles on a pool of worker threads and emits every result as soon as it is finished.
+ * Only a bounded number of puzzles is read ahead, so the memory usage does not depend on the size of the input.
+ * <p>
+ * Usage: {@code BatchSolver [--threads n] [--probe] [--search] [--portfolio] [--timeout ms] [--cache lines] [--schedule round_robin|slack|information_gain] [--metrics] [--format line|non|binary] [file]},
+ * the puzzles are read from stdin if no file is given. Probing runs between the line logic and the search. The portfolio races the
+ * {@link SolverStrategy#defaults() default strategies} on every puzzle instead and prints their wins at the end. The timeout limits probing and the search or the race per puzzle, the cache size is the
+ * number of line solutions shared by all puzzles. The schedule orders the lines of every solve step, see {@link LineSchedule}. The metrics of all puzzles are summed up and printed at the end. Without a format it is chosen by the
+ * extension of the file, see {@link PuzzleFormat#ofFileName(String)}.
+ */
+public class BatchSolver {
+    private static final int PUZZLES_IN_FLIGHT_PER_THREAD = 4;
+
+    private final int threads;
+    private final boolean search;
+    private final long searchTimeoutNanos;
+    private final Map<SolveStatus, AtomicLong> statusCounts;
+    private LineSolutionCache solutionCache;
+    private LineSchedule lineSchedule;
+    private SolverListener solverListener;
+    private boolean probing;
+    private PortfolioSolver portfolio;
+
+    /**
+     * @param threads the number of worker threads
+     * @param search  true if puzzles the line logic can not finish should be solved by the backtracking search
+     * @param searchTimeoutNanos the time after which probing and the search of a single puzzle are aborted
+     */
+    public BatchSolver(int threads, boolean search, long searchTimeoutNanos) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required, but " + threads + " were given");
+        }
+        this.threads = threads;
+        this.search = search;
+        this.searchTimeoutNanos = searchTimeoutNanos;
+        solverListener = SolverListener.NONE;
+        lineSchedule = LineSchedule.INFORMATION_GAIN;
+        statusCounts = new EnumMap<>(SolveStatus.class);
+        for (SolveStatus status : SolveStatus.values()) {
+            statusCounts.put(status, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean search = false;
+        boolean probing = false;
+        boolean portfolio = false;
+        long searchTimeoutNanos = Long.MAX_VALUE;
+        int cacheSize = 0;
+        LineSchedule lineSchedule = LineSchedule.INFORMATION_GAIN;
+        SolverMetrics metrics = null;
+        PuzzleFormat format = null;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--probe" -> probing = true;
+                case "--search" -> search = true;
+                case "--portfolio" -> portfolio = true;
+                case "--timeout" -> searchTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[++i]));
+                case "--cache" -> cacheSize = Integer.parseInt(args[++i]);
+                case "--schedule" -> lineSchedule = LineSchedule.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--metrics" -> metrics = new SolverMetrics();
+                case "--format" -> format = PuzzleFormat.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                default -> file = args[i];
+            }
+        }
+        BatchSolver batchSolver = new BatchSolver(threads, search, searchTimeoutNanos);
+        batchSolver.setProbing(probing);
+        batchSolver.setLineSchedule(lineSchedule);
+        if (cacheSize > 0) {
+            batchSolver.setSolutionCache(new LineSolutionCache(cacheSize));
+        }
+        if (metrics != null) {
+            batchSolver.setSolverListener(metrics);
+        }
+        ExecutorService strategyExecutor = null;
+        if (portfolio) {
+            strategyExecutor = Executors.newCachedThreadPool();
+            batchSolver.setPortfolio(new PortfolioSolver(SolverStrategy.defaults(), strategyExecutor));
+        }
+        long start = System.nanoTime();
+        if (format == null) {
+            format = file == null ? PuzzleFormat.LINE : PuzzleFormat.ofFileName(file);
+        }
+        try (PuzzleReader reader = file == null ? format.open(System.in) : format.open(Path.of(file))) {
+            batchSolver.run(reader, System.out::println);
+        }
+        System.out.println("# " + batchSolver.getStatusCounts() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        if (batchSolver.solutionCache != null) {
+            System.out.println("# " + batchSolver.solutionCache);
+        }
+        if (metrics != null) {
+            System.out.println("# " + metrics);
+        }
+        if (strategyExecutor != null) {
+            System.out.println("# " + batchSolver.portfolio);
+            strategyExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @param lineSchedule the order the lines of every solve step are solved in
+     */
+    public void setLineSchedule(LineSchedule lineSchedule) {
+        this.lineSchedule = lineSchedule;
+    }
+
+    /**
+     * @param solutionCache the cache shared by the lines of all puzzles, null to solve every line on its own
+     */
+    public void setSolutionCache(LineSolutionCache solutionCache) {
+        this.solutionCache = solutionCache;
+    }
+
+    /**
+     * @param probing true if puzzles the line logic can not finish should be probed before they are searched, the
+     *                probes of one puzzle run in its worker thread
+     */
+    public void setProbing(boolean probing) {
+        this.probing = probing;
+    }
+
+    /**
+     * @param portfolio races its strategies on every puzzle instead of running the line logic, probing and the search
+     *                  one after the other, null to disable it
+     */
+    public void setPortfolio(PortfolioSolver portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    /**
+     * @param solverListener gets the metrics of all puzzles, it is called by several threads at the same time
+     */
+    public void setSolverListener(SolverListener solverListener) {
+        this.solverListener = solverListener;
+    }
+
+    /**
+     * solves all puzzles of the reader and blocks until every result was emitted
+     *
+     * @param output gets every result in the order the puzzles are finished, it is called by one thread at a time
+     */
+    public void run(PuzzleReader reader, Consumer<SolveResult> output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * PUZZLES_IN_FLIGHT_PER_THREAD);
+        Consumer<SolveResult> synchronizedOutput = result -> {
+            statusCounts.get(result.status()).incrementAndGet();
+            synchronized (output) {
+                output.accept(result);
+            }
+        };
+        try {
+            Puzzle puzzle;
+            while ((puzzle = readNext(reader, synchronizedOutput)) != null) {
+                inFlight.acquire();
+                Puzzle toSolve = puzzle;
+                executor.execute(() -> {
+                    try {
+                        synchronizedOutput.accept(solve(toSolve));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return the next puzzle which could be read, invalid puzzles are reported directly
+     */
+    private static Puzzle readNext(PuzzleReader reader, Consumer<SolveResult> output) throws IOException {
+        while (true) {
+            try {
+                return reader.next();
+            } catch (IllegalArgumentException e) {
+                output.accept(new SolveResult(e.getMessage(), SolveStatus.INVALID, 0));
+            }
+        }
+    }
+
+    /**
+     * solves the puzzle with the line logic, probing and the backtracking search if enabled
+     *
+     * @return the result, which is an {@link SolveStatus#ERROR} if the solver failed, so every puzzle gets exactly one
+     */
+    public SolveResult solve(Puzzle puzzle) {
+        long start = System.nanoTime();
+        Nonogram nonogram;
+        try {
+            nonogram = puzzle.toNonogram();
+        } catch (IllegalArgumentException e) {
+            return new SolveResult(puzzle.name(), SolveStatus.INVALID, System.nanoTime() - start);
+        }
+        nonogram.setSolutionCache(solutionCache);
+        nonogram.setLineSchedule(lineSchedule);
+        nonogram.setSolverListener(solverListener);
+        SolveStatus status;
+        try {
+            status = solve(nonogram);
+        } catch (RuntimeException e) {
+            // only the puzzle itself can be invalid, an exception while solving is a failure of the solver
+            return new SolveResult(puzzle.name(), SolveStatus.ERROR, System.nanoTime() - start, e.toString());
+        }
+        return new SolveResult(puzzle.name(), status, System.nanoTime() - start);
+    }
+
+    private SolveStatus solve(Nonogram nonogram) {
+        if (portfolio != null) {
+            PortfolioResult result = portfolio.solve(nonogram, searchTimeoutNanos);
+            if (result.isSolved()) {
+                return SolveStatus.SOLVED;
+            }
+            if (result.contradiction()) {
+                return SolveStatus.CONTRADICTION;
+            }
+            return result.timedOut() ? SolveStatus.TIMEOUT : SolveStatus.STALLED;
+        }
+        boolean solved = nonogram.trySolve();
+        if (nonogram.getContradiction() != null) {
+            return SolveStatus.CONTRADICTION;
+        }
+        long timeoutNanos = searchTimeoutNanos;
+        if (!solved && probing) {
+            long probeStart = System.nanoTime();
+            ProbingSolver probingSolver = new ProbingSolver(timeoutNanos);
+            solved = probingSolver.solve(nonogram);
+            if (probingSolver.isContradiction()) {
+                return SolveStatus.CONTRADICTION;
+            }
+            if (probingSolver.isAborted()) {
+                return SolveStatus.TIMEOUT;
+            }
+            // probing and the search share the timeout
+            timeoutNanos -= System.nanoTime() - probeStart;
+        }
+        if (solved) {
+            return nonogram.fulfillsClues() ? SolveStatus.SOLVED : SolveStatus.CONTRADICTION;
+        }
+        if (!search) {
+            return SolveStatus.STALLED;
+        }
+        BacktrackingSolver solver = new BacktrackingSolver(timeoutNanos);
+        if (solver.solve(nonogram)) {
+            return SolveStatus.SOLVED;
+        }
+        return solver.isAborted() ? SolveStatus.TIMEOUT : SolveStatus.CONTRADICTION;
+    }
+
+    /**
+     * @return the number of results per status emitted so far
+     */
+    public Map<SolveStatus, Long> getStatusCounts() {
+        Map<SolveStatus, Long> counts = new EnumMap<>(SolveStatus.class);
+        statusCounts.forEach((status, count) -> counts.put(status, count.get()));
+        return counts;
+    }
+}
@@ -0,0 +1,21 @@
+package de.djjm.nanosolver.batch;
+
+import java.util.Locale;
+
+/**
+ * @param name    the name of the solved puzzle
+ * @param nanos   the time needed to create and solve the nonogram
+ * @param message the reason of an {@link SolveStatus#ERROR}, null otherwise
+ */
+public record SolveResult(String name, SolveStatus status, long nanos, String message) {
+
+    public SolveResult(String name, SolveStatus status, long nanos) {
+        this(name, status, nanos, null);
+    }
+
+    @Override
+    public String toString() {
+        String result = name + "\t" + status + "\t" + String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+        return message == null ? result : result + "\t" + message;
+    }
+}
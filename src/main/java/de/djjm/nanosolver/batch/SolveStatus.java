@@ -0,0 +1,28 @@
+package de.djjm.nanosolver.batch;
+
+public enum SolveStatus {
+    /**
+     * every cell is known and fulfills the clues
+     */
+    SOLVED,
+    /**
+     * the solver could not deduce every cell
+     */
+    STALLED,
+    /**
+     * the clues can not be fulfilled
+     */
+    CONTRADICTION,
+    /**
+     * the search was aborted because it took too long
+     */
+    TIMEOUT,
+    /**
+     * the puzzle could not be read
+     */
+    INVALID,
+    /**
+     * the solver failed unexpectedly, the result carries the message of the failure
+     */
+    ERROR
+}
@@ -0,0 +1,27 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+
+/**
+ * The outcome of the search of one puzzle by the {@link DistributedSearch}
+ *
+ * @param solution    the solution found by a worker, null if the puzzle has none or the timeout was exceeded
+ * @param timedOut    true if the search was cancelled by the timeout
+ * @param subproblems the number of subproblems sent to the workers
+ * @param splits      the number of branches the workers gave away
+ * @param failure     the message of the worker whose search failed unexpectedly or why its solution was rejected, null
+ *                    if no search failed
+ */
+public record DistributedResult(Nonogram solution, boolean timedOut, int subproblems, int splits, String failure) {
+
+    public boolean isSolved() {
+        return solution != null;
+    }
+
+    /**
+     * @return true if the search of a subproblem failed, so the puzzle was not searched completely
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+}
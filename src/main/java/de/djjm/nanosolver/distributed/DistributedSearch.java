@@ -0,0 +1,428 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.io.PuzzleFormat;
+import de.djjm.nanosolver.io.PuzzleReader;
+import de.djjm.nanosolver.matrix.Nonogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches puzzles on a pool of {@link SearchWorker} processes connected over sockets. The search of a puzzle starts
+ * as a single subproblem. Whenever a worker is idle and no subproblem is queued, a busy worker is asked to give away
+ * its largest untried branch, which is queued as a new subproblem. The first solution found cancels all workers.
+ * <p>
+ * The workers can be started on the same machine by {@link #launchLocalWorkers(int)} or on other machines, which
+ * connect to the port of the coordinator. A worker which disconnects loses its subproblem, it is queued again. A
+ * worker whose search fails reports the failure, which ends the search of the puzzle, as the same subproblem would
+ * fail on every other worker as well.
+ * <p>
+ * Usage: {@code DistributedSearch [--workers n] [--remote n] [--bind address] [--port p] [--timeout ms] [--format line|non|binary] [file]},
+ * the puzzles are read from stdin if no file is given. The workers are the number of local worker processes, the
+ * remote workers are awaited in addition to them.
+ */
+public class DistributedSearch implements Closeable {
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+    private static final int ACCEPT_TIMEOUT_MILLIS = 60_000;
+    /**
+     * the time a cancelled worker has to report its task as done, a worker not answering in time is disconnected
+     */
+    private static final long CANCEL_TIMEOUT_SECONDS = 10;
+
+    private final ServerSocket serverSocket;
+    private final List<Process> processes;
+    private final List<WorkerConnection> workers;
+    private final BlockingQueue<Event> events;
+
+    /**
+     * @param bindAddress the address the workers connect to, the loopback address if all workers are local
+     * @param port        the port the workers connect to, 0 for any free port
+     */
+    public DistributedSearch(InetAddress bindAddress, int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, bindAddress);
+        serverSocket.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+        processes = new ArrayList<>();
+        workers = new ArrayList<>();
+        events = new LinkedBlockingQueue<>();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int localWorkers = Runtime.getRuntime().availableProcessors();
+        int remoteWorkers = 0;
+        InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        int port = 0;
+        long timeoutNanos = NO_TIMEOUT;
+        PuzzleFormat format = null;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers" -> localWorkers = Integer.parseInt(args[++i]);
+                case "--remote" -> remoteWorkers = Integer.parseInt(args[++i]);
+                case "--bind" -> bindAddress = InetAddress.getByName(args[++i]);
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--timeout" -> timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[++i]));
+                case "--format" -> format = PuzzleFormat.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                default -> file = args[i];
+            }
+        }
+        if (format == null) {
+            format = file == null ? PuzzleFormat.LINE : PuzzleFormat.ofFileName(file);
+        }
+        try (DistributedSearch search = new DistributedSearch(bindAddress, port);
+             PuzzleReader reader = file == null ? format.open(System.in) : format.open(Path.of(file))) {
+            System.err.println("# waiting for workers on " + bindAddress.getHostAddress() + " " + search.getPort());
+            search.launchLocalWorkers(localWorkers);
+            search.awaitWorkers(localWorkers + remoteWorkers);
+            Puzzle puzzle;
+            while ((puzzle = readNext(reader)) != null) {
+                long start = System.nanoTime();
+                DistributedResult result;
+                try {
+                    result = search.solve(puzzle, timeoutNanos);
+                } catch (IllegalArgumentException e) {
+                    System.out.printf(Locale.ROOT, "%s\tINVALID\t%s%n", puzzle.name(), e.getMessage());
+                    continue;
+                } catch (RuntimeException e) {
+                    // e.g. all workers disconnected, every puzzle still gets exactly one result
+                    System.out.printf(Locale.ROOT, "%s\tERROR\t%s%n", puzzle.name(), e);
+                    continue;
+                }
+                String status = result.isSolved() ? "SOLVED" : result.isFailed() ? "ERROR"
+                        : result.timedOut() ? "TIMEOUT" : "CONTRADICTION";
+                System.out.printf(Locale.ROOT, "%s\t%s\t%.3f\t%d subproblems%n", puzzle.name(), status,
+                        (System.nanoTime() - start) / 1e6, result.subproblems());
+                if (result.isFailed()) {
+                    System.err.println("# " + puzzle.name() + ": " + result.failure());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the port the workers connect to
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * starts worker processes on this machine with the same java and class path, they still have to be accepted by
+     * {@link #awaitWorkers(int)}
+     */
+    public void launchLocalWorkers(int count) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String host = serverSocket.getInetAddress().isAnyLocalAddress() ? InetAddress.getLoopbackAddress().getHostAddress()
+                : serverSocket.getInetAddress().getHostAddress();
+        for (int i = 0; i < count; i++) {
+            processes.add(new ProcessBuilder(java, "--add-modules", "jdk.incubator.vector",
+                    "-cp", System.getProperty("java.class.path"), SearchWorker.class.getName(), host, String.valueOf(getPort()))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+    }
+
+    /**
+     * accepts workers until the given number is connected
+     *
+     * @throws java.net.SocketTimeoutException if no worker connects for a minute
+     */
+    public void awaitWorkers(int count) throws IOException {
+        while (workers.size() < count) {
+            Socket socket = serverSocket.accept();
+            socket.setTcpNoDelay(true);
+            WorkerConnection worker = new WorkerConnection(socket);
+            if (worker.input.readInt() != Protocol.MAGIC || worker.input.readInt() != Protocol.VERSION) {
+                socket.close();
+                throw new IOException("The connection from " + socket.getRemoteSocketAddress() + " is no search worker of this version");
+            }
+            workers.add(worker);
+            worker.startReading();
+        }
+    }
+
+    /**
+     * @return the number of connected workers
+     */
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    /**
+     * @see #solve(Puzzle, long)
+     */
+    public DistributedResult solve(Puzzle puzzle) throws IOException, InterruptedException {
+        return solve(puzzle, NO_TIMEOUT);
+    }
+
+    /**
+     * @return the next puzzle which could be read, invalid puzzles are reported directly
+     */
+    private static Puzzle readNext(PuzzleReader reader) throws IOException {
+        while (true) {
+            try {
+                return reader.next();
+            } catch (IllegalArgumentException e) {
+                System.out.printf(Locale.ROOT, "%s\tINVALID%n", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * searches the puzzle on the workers until a solution is found, every subproblem is searched, the search of a
+     * subproblem failed or the timeout is exceeded. It returns once all workers are idle again. A solution of a worker
+     * which does not fit the puzzle is reported as a failure.
+     *
+     * @throws IllegalStateException    if no worker is connected
+     * @throws IllegalArgumentException if the workers would reject the puzzle, see {@link Subproblem#of(Puzzle)}
+     */
+    public DistributedResult solve(Puzzle puzzle, long timeoutNanos) throws IOException, InterruptedException {
+        if (workers.isEmpty()) {
+            throw new IllegalStateException("No worker is connected");
+        }
+        long deadline = timeoutNanos == NO_TIMEOUT ? NO_TIMEOUT : System.nanoTime() + timeoutNanos;
+        Deque<Subproblem> queue = new ArrayDeque<>();
+        queue.add(Subproblem.of(puzzle));
+        int subproblems = 0;
+        int splits = 0;
+        long[][] solution = null;
+        String failure = null;
+        boolean timedOut = false;
+        try {
+            while (true) {
+                for (WorkerConnection worker : workers) {
+                    if (worker.task == null && !queue.isEmpty()) {
+                        worker.send(Protocol.TASK, queue.poll());
+                        subproblems++;
+                    }
+                }
+                if (workers.isEmpty()) {
+                    throw new IllegalStateException("All workers disconnected");
+                }
+                if (workers.stream().allMatch(worker -> worker.task == null)) {
+                    break;
+                }
+                requestSteals(queue);
+                Event event = deadline == NO_TIMEOUT ? events.take()
+                        : events.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    timedOut = true;
+                    break;
+                }
+                if (!workers.contains(event.worker)) {
+                    // the connection was closed by an earlier cancel, its reading thread reports it late
+                    continue;
+                }
+                if (event.type == Protocol.SPLIT) {
+                    event.worker.stealRequested = false;
+                    queue.add(event.subproblem);
+                    splits++;
+                } else if (event.type == Protocol.DONE) {
+                    event.worker.task = null;
+                    event.worker.stealRequested = false;
+                    if (event.solution != null) {
+                        solution = event.solution;
+                        break;
+                    }
+                } else if (event.type == Protocol.FAILED) {
+                    event.worker.task = null;
+                    event.worker.stealRequested = false;
+                    failure = event.failure;
+                    break;
+                } else {
+                    disconnected(event.worker, queue);
+                }
+            }
+        } finally {
+            cancelAll();
+        }
+        Nonogram nonogram = null;
+        if (solution != null) {
+            try {
+                nonogram = Protocol.toNonogram(puzzle, solution);
+            } catch (IllegalStateException e) {
+                failure = e.getMessage();
+            }
+        }
+        return new DistributedResult(nonogram, timedOut, subproblems, splits, failure);
+    }
+
+    /**
+     * asks busy workers for branches, at most one request per idle worker is outstanding
+     */
+    private void requestSteals(Deque<Subproblem> queue) throws IOException {
+        if (!queue.isEmpty()) {
+            return;
+        }
+        long idle = workers.stream().filter(worker -> worker.task == null).count();
+        long outstanding = workers.stream().filter(worker -> worker.stealRequested).count();
+        for (WorkerConnection worker : workers) {
+            if (outstanding >= idle) {
+                return;
+            }
+            if (worker.task != null && !worker.stealRequested) {
+                worker.stealRequested = true;
+                worker.send(Protocol.STEAL, null);
+                outstanding++;
+            }
+        }
+    }
+
+    /**
+     * the subproblem of the worker is queued again, the branches it gave away are already queued
+     */
+    private void disconnected(WorkerConnection worker, Deque<Subproblem> queue) {
+        workers.remove(worker);
+        if (worker.task != null) {
+            queue.addFirst(worker.task);
+        }
+        worker.closeQuietly();
+    }
+
+    /**
+     * cancels the busy workers and waits until they are idle, the branches they give away meanwhile are dropped. The
+     * workers still busy after {@link #CANCEL_TIMEOUT_SECONDS} are disconnected.
+     */
+    private void cancelAll() throws IOException, InterruptedException {
+        for (WorkerConnection worker : workers) {
+            if (worker.task != null) {
+                worker.send(Protocol.CANCEL, null);
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CANCEL_TIMEOUT_SECONDS);
+        while (workers.stream().anyMatch(worker -> worker.task != null)) {
+            Event event = events.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (event == null) {
+                for (WorkerConnection worker : List.copyOf(workers)) {
+                    if (worker.task != null) {
+                        disconnected(worker, new ArrayDeque<>());
+                    }
+                }
+                return;
+            }
+            if (!workers.contains(event.worker)) {
+                continue;
+            }
+            if (event.type == Protocol.DONE || event.type == Protocol.FAILED) {
+                event.worker.task = null;
+                event.worker.stealRequested = false;
+            } else if (event.type != Protocol.SPLIT) {
+                disconnected(event.worker, new ArrayDeque<>());
+            }
+        }
+    }
+
+    /**
+     * shuts the workers down and waits for the local worker processes to exit
+     */
+    @Override
+    public void close() throws IOException {
+        for (WorkerConnection worker : workers) {
+            try {
+                worker.send(Protocol.SHUTDOWN, null);
+            } catch (IOException e) {
+                // the worker is gone already
+            }
+            worker.closeQuietly();
+        }
+        workers.clear();
+        serverSocket.close();
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * a message of a worker, the solution of DONE is null if the subproblem has none
+     */
+    private record Event(WorkerConnection worker, byte type, Subproblem subproblem, long[][] solution, String failure) {
+    }
+
+    /**
+     * The connection to one worker. Its messages are read by its own thread and passed on as events, all other fields
+     * are only used by the thread of the coordinator.
+     */
+    private class WorkerConnection {
+        /**
+         * a message type of the events only created by the reading thread
+         */
+        private static final byte DISCONNECTED = -1;
+
+        private final Socket socket;
+        private final DataInputStream input;
+        private final DataOutputStream output;
+        private Subproblem task;
+        private boolean stealRequested;
+
+        WorkerConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void startReading() {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (true) {
+                        byte type = input.readByte();
+                        if (type == Protocol.SPLIT) {
+                            events.add(new Event(this, type, Subproblem.readFrom(input), null, null));
+                        } else if (type == Protocol.DONE) {
+                            events.add(new Event(this, type, null, input.readBoolean() ? Protocol.readSolution(input) : null,
+                                    null));
+                        } else if (type == Protocol.FAILED) {
+                            events.add(new Event(this, type, null, null, input.readUTF()));
+                        } else {
+                            throw new IOException("Unknown message type " + type);
+                        }
+                    }
+                } catch (IOException e) {
+                    events.add(new Event(this, DISCONNECTED, null, null, null));
+                }
+            }, "search-worker-connection");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        void send(byte type, Subproblem subproblem) throws IOException {
+            output.writeByte(type);
+            if (type == Protocol.TASK) {
+                subproblem.writeTo(output);
+                task = subproblem;
+            }
+            output.flush();
+        }
+
+        void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing a broken connection
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The messages between the {@link DistributedSearch} and its {@link SearchWorker}s. A worker starts with the magic
+ * and the version, afterwards every message is a type followed by its content:
+ * <pre>
+ * TASK     subproblem       search the subproblem
+ * STEAL                     give away a branch of the current subproblem
+ * CANCEL                    stop the current subproblem
+ * SHUTDOWN                  exit
+ * SPLIT    subproblem       a branch given away by the worker
+ * DONE     solved, [grid]   the subproblem is searched, the grid is the filled words per row of the solution
+ * FAILED   message          the search of the subproblem failed unexpectedly
+ * </pre>
+ */
+final class Protocol {
+    static final int MAGIC = 'N' << 24 | 'O' << 16 | 'N' << 8 | 'D';
+    static final int VERSION = 2;
+
+    static final byte TASK = 1;
+    static final byte STEAL = 2;
+    static final byte CANCEL = 3;
+    static final byte SHUTDOWN = 4;
+    static final byte SPLIT = 5;
+    static final byte DONE = 6;
+    static final byte FAILED = 7;
+    /**
+     * the longest message of a failure, a longer one is cut
+     */
+    static final int MAX_MESSAGE_LENGTH = 1000;
+
+    /**
+     * the largest height and width read from the network, so a corrupt message can not allocate huge arrays
+     */
+    static final int MAX_LINES = 1 << 17;
+
+    private Protocol() {
+    }
+
+    static void writeSolution(DataOutput output, Nonogram nonogram) throws IOException {
+        output.writeInt(nonogram.getHeight());
+        for (int row = 0; row < nonogram.getHeight(); row++) {
+            CellLine cells = nonogram.getHorizontalLine(row).getCells();
+            output.writeInt(cells.getWordCount());
+            for (int w = 0; w < cells.getWordCount(); w++) {
+                output.writeLong(cells.getFilledWord(w));
+            }
+        }
+    }
+
+    static long[][] readSolution(DataInput input) throws IOException {
+        long[][] filled = new long[readCount(input, 1, MAX_LINES, "height")][];
+        for (int row = 0; row < filled.length; row++) {
+            filled[row] = new long[readCount(input, 1, CellLine.wordCount(MAX_LINES), "word count")];
+            for (int w = 0; w < filled[row].length; w++) {
+                filled[row][w] = input.readLong();
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * reads a count or an index sent by the other side
+     *
+     * @throws IOException if it is outside of the range, the message is corrupt then
+     */
+    static int readCount(DataInput input, int min, int max, String description) throws IOException {
+        int count = input.readInt();
+        if (count < min || count > max) {
+            throw new IOException("The " + description + " " + count + " is not between " + min + " and " + max);
+        }
+        return count;
+    }
+
+    /**
+     * @param filled the filled words per row of the solution, every other cell is empty
+     * @throws IllegalStateException if the solution does not have the size of the puzzle or does not fulfill its clues
+     */
+    static Nonogram toNonogram(Puzzle puzzle, long[][] filled) {
+        Nonogram nonogram = puzzle.toNonogram();
+        int wordCount = CellLine.wordCount(nonogram.getWidth());
+        if (filled.length != nonogram.getHeight() || Arrays.stream(filled).anyMatch(row -> row.length != wordCount)) {
+            throw new IllegalStateException("The solution of a worker does not have the size of " + puzzle.name());
+        }
+        for (int row = 0; row < nonogram.getHeight(); row++) {
+            for (int column = 0; column < nonogram.getWidth(); column++) {
+                boolean isFilled = (filled[row][column >>> 6] & 1L << column) != 0;
+                nonogram.setCellStatus(row, column, isFilled ? CellStatus.FILLED : CellStatus.EMPTY);
+            }
+        }
+        if (!nonogram.fulfillsClues()) {
+            throw new IllegalStateException("The solution of a worker does not fulfill the clues of " + puzzle.name());
+        }
+        return nonogram;
+    }
+}
@@ -0,0 +1,146 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.search.BacktrackingSolver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Searches the subproblems sent by a {@link DistributedSearch} one after the other. The search runs in its own thread,
+ * so steal and cancel requests are handled while it runs. A steal request lets the search give away its largest
+ * untried branch, which is sent back as a new subproblem.
+ * <p>
+ * Usage: {@code SearchWorker host port}, the worker exits when the coordinator shuts it down or closes the connection.
+ */
+public class SearchWorker {
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private Thread searchThread;
+    private BacktrackingSolver solver;
+
+    public SearchWorker(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: SearchWorker host port");
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            new SearchWorker(socket).run();
+        }
+    }
+
+    /**
+     * handles the messages of the coordinator until it shuts the worker down or closes the connection
+     */
+    public void run() throws IOException, InterruptedException {
+        synchronized (output) {
+            output.writeInt(Protocol.MAGIC);
+            output.writeInt(Protocol.VERSION);
+            output.flush();
+        }
+        try {
+            while (true) {
+                byte type;
+                try {
+                    type = input.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                switch (type) {
+                    case Protocol.TASK -> start(Subproblem.readFrom(input));
+                    case Protocol.STEAL -> {
+                        if (solver != null) {
+                            solver.requestSplit();
+                        }
+                    }
+                    case Protocol.CANCEL -> {
+                        if (searchThread != null) {
+                            searchThread.interrupt();
+                        }
+                    }
+                    case Protocol.SHUTDOWN -> {
+                        return;
+                    }
+                    default -> throw new IOException("Unknown message type " + type);
+                }
+            }
+        } finally {
+            if (searchThread != null) {
+                searchThread.interrupt();
+                searchThread.join();
+            }
+        }
+    }
+
+    /**
+     * starts the search of the subproblem, the previous one is finished as the coordinator sends a task only to idle
+     * workers
+     */
+    private void start(Subproblem subproblem) throws InterruptedException {
+        if (searchThread != null) {
+            searchThread.join();
+        }
+        BacktrackingSolver taskSolver = new BacktrackingSolver();
+        taskSolver.setSplitListener(guesses -> send(Protocol.SPLIT, subproblem.branch(guesses), null));
+        solver = taskSolver;
+        searchThread = new Thread(() -> {
+            Nonogram solution;
+            try {
+                Nonogram candidate = subproblem.toNonogram();
+                // a contradiction is found by the search, which returns false then
+                solution = taskSolver.solve(candidate) ? candidate : null;
+            } catch (RuntimeException | Error e) {
+                // the coordinator waits for every task, so a failed search is reported instead of being done
+                sendFailure(e);
+                return;
+            }
+            send(Protocol.DONE, null, solution);
+        }, "search-worker");
+        searchThread.start();
+    }
+
+    /**
+     * @param solution the solution of a finished subproblem, null if it has none
+     */
+    private void send(byte type, Subproblem split, Nonogram solution) {
+        try {
+            synchronized (output) {
+                output.writeByte(type);
+                if (type == Protocol.SPLIT) {
+                    split.writeTo(output);
+                } else {
+                    output.writeBoolean(solution != null);
+                    if (solution != null) {
+                        Protocol.writeSolution(output, solution);
+                    }
+                }
+                output.flush();
+            }
+        } catch (IOException e) {
+            // the coordinator is gone, the reading thread ends the worker
+        }
+    }
+
+    private void sendFailure(Throwable failure) {
+        String message = failure.toString();
+        try {
+            synchronized (output) {
+                output.writeByte(Protocol.FAILED);
+                output.writeUTF(message.substring(0, Math.min(message.length(), Protocol.MAX_MESSAGE_LENGTH)));
+                output.flush();
+            }
+        } catch (IOException e) {
+            // the coordinator is gone, the reading thread ends the worker
+        }
+    }
+}
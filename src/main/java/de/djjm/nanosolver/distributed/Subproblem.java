@@ -0,0 +1,154 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A subtree of the search of a puzzle: the clues and the guesses leading from the start of the search to the root of
+ * the subtree. The grid state is not sent, it is rebuilt by setting the guesses and running the line logic, which
+ * keeps a subproblem small enough to be sent for every split.
+ * <pre>
+ * height, width
+ * per row, then per column: the number of clues, the clues
+ * the number of guesses, per guess from the oldest: row, column, 1 if the cell is filled
+ * </pre>
+ */
+public final class Subproblem {
+    /**
+     * a nonogram needs a single 0 for a line without clues, so every line has at least one clue
+     */
+    private static final int MIN_CLUES = 1;
+    private final int[][] horizontalClues;
+    private final int[][] verticalClues;
+    private final int[] guesses;
+
+    private Subproblem(int[][] horizontalClues, int[][] verticalClues, int[] guesses) {
+        this.horizontalClues = horizontalClues;
+        this.verticalClues = verticalClues;
+        this.guesses = guesses;
+    }
+
+    /**
+     * @return the whole search of the puzzle
+     * @throws IllegalArgumentException if a worker would reject the subproblem, because its size or its clues do not
+     *                                  pass the checks of {@link #readFrom(DataInput)} or do not form a nonogram
+     */
+    public static Subproblem of(Puzzle puzzle) {
+        checkCount(puzzle.getHeight(), 1, Protocol.MAX_LINES, "height");
+        checkCount(puzzle.getWidth(), 1, Protocol.MAX_LINES, "width");
+        checkClues(puzzle.horizontalClues(), puzzle.getWidth());
+        checkClues(puzzle.verticalClues(), puzzle.getHeight());
+        return new Subproblem(puzzle.horizontalClues(), puzzle.verticalClues(), new int[0]);
+    }
+
+    private static void checkClues(int[][] clues, int lineLength) {
+        for (int[] line : clues) {
+            checkCount(line.length, MIN_CLUES, maxClues(lineLength), "number of clues");
+            for (int clue : line) {
+                checkCount(clue, 0, lineLength, "clue");
+            }
+        }
+    }
+
+    private static void checkCount(int count, int min, int max, String description) {
+        if (count < min || count > max) {
+            throw new IllegalArgumentException("The " + description + " " + count + " is not between " + min +
+                    " and " + max + ", so the puzzle can not be sent to the workers");
+        }
+    }
+
+    /**
+     * @return the largest number of clues of a line, which is checked when it is read
+     */
+    private static int maxClues(int lineLength) {
+        return (lineLength + 1) / 2;
+    }
+
+    /**
+     * @param guesses the guesses of the branch inside this subproblem, see {@link de.djjm.nanosolver.search.SplitListener}
+     * @return the subproblem of the branch
+     */
+    public Subproblem branch(int[] guesses) {
+        int[] combined = new int[this.guesses.length + guesses.length];
+        System.arraycopy(this.guesses, 0, combined, 0, this.guesses.length);
+        System.arraycopy(guesses, 0, combined, this.guesses.length, guesses.length);
+        return new Subproblem(horizontalClues, verticalClues, combined);
+    }
+
+    /**
+     * @return the number of guesses from the start of the search to the root of the subproblem
+     */
+    public int getDepth() {
+        return guesses.length / 3;
+    }
+
+    /**
+     * @return a new nonogram with the guesses set, but not propagated
+     */
+    public Nonogram toNonogram() {
+        Nonogram nonogram = new Nonogram(horizontalClues, verticalClues);
+        for (int i = 0; i < guesses.length; i += 3) {
+            nonogram.setCellStatus(guesses[i], guesses[i + 1], guesses[i + 2] != 0 ? CellStatus.FILLED : CellStatus.EMPTY);
+        }
+        return nonogram;
+    }
+
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeInt(horizontalClues.length);
+        output.writeInt(verticalClues.length);
+        writeClues(output, horizontalClues);
+        writeClues(output, verticalClues);
+        output.writeInt(getDepth());
+        for (int value : guesses) {
+            output.writeInt(value);
+        }
+    }
+
+    private static void writeClues(DataOutput output, int[][] clues) throws IOException {
+        for (int[] line : clues) {
+            output.writeInt(line.length);
+            for (int clue : line) {
+                output.writeInt(clue);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if a count, a clue or a guess does not fit to the size of the puzzle, the message is corrupt
+     *                     then
+     */
+    public static Subproblem readFrom(DataInput input) throws IOException {
+        int height = Protocol.readCount(input, 1, Protocol.MAX_LINES, "height");
+        int width = Protocol.readCount(input, 1, Protocol.MAX_LINES, "width");
+        int[][] horizontalClues = readClues(input, height, width);
+        int[][] verticalClues = readClues(input, width, height);
+        // every cell is guessed at most once
+        int maxGuesses = (int) Math.min((long) height * width, Integer.MAX_VALUE / 3);
+        int[] guesses = new int[3 * Protocol.readCount(input, 0, maxGuesses, "number of guesses")];
+        for (int i = 0; i < guesses.length; i += 3) {
+            guesses[i] = Protocol.readCount(input, 0, height - 1, "guessed row");
+            guesses[i + 1] = Protocol.readCount(input, 0, width - 1, "guessed column");
+            guesses[i + 2] = Protocol.readCount(input, 0, 1, "guessed status");
+        }
+        return new Subproblem(horizontalClues, verticalClues, guesses);
+    }
+
+    /**
+     * @param lineLength the number of cells of each line, which limits the number and the lengths of its clues
+     */
+    private static int[][] readClues(DataInput input, int lines, int lineLength) throws IOException {
+        int[][] clues = new int[lines][];
+        for (int line = 0; line < lines; line++) {
+            clues[line] = new int[Protocol.readCount(input, MIN_CLUES, maxClues(lineLength), "number of clues")];
+            for (int i = 0; i < clues[line].length; i++) {
+                clues[line][i] = Protocol.readCount(input, 0, lineLength, "clue");
+            }
+        }
+        return clues;
+    }
+}
@@ -0,0 +1,19 @@
+package de.djjm.nanosolver.generator;
+
+/**
+ * The first solver stage which finishes a puzzle
+ */
+public enum Difficulty {
+    /**
+     * the line logic alone finds every cell
+     */
+    LINE_LOGIC,
+    /**
+     * probing finds the cells the line logic can not find
+     */
+    PROBING,
+    /**
+     * only the backtracking search finishes the puzzle, this includes puzzles with more than one solution
+     */
+    SEARCH
+}
@@ -0,0 +1,33 @@
+package de.djjm.nanosolver.generator;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.search.ProbingSolver;
+
+/**
+ * Grades puzzles by the solver stage needed to finish them. The search is not run, puzzles which are neither finished
+ * by the line logic nor by probing need it.
+ */
+public class DifficultyGrader {
+    /**
+     * @throws IllegalArgumentException if the puzzle has no solution
+     */
+    public Difficulty grade(Puzzle puzzle) {
+        Nonogram nonogram = puzzle.toNonogram();
+        boolean solved = nonogram.trySolve();
+        if (nonogram.getContradiction() != null) {
+            throw new IllegalArgumentException("The puzzle " + puzzle.name() + " has no solution: " + nonogram.getContradiction());
+        }
+        if (solved) {
+            return Difficulty.LINE_LOGIC;
+        }
+        ProbingSolver probingSolver = new ProbingSolver();
+        if (probingSolver.solve(nonogram)) {
+            return Difficulty.PROBING;
+        }
+        if (probingSolver.isContradiction()) {
+            throw new IllegalArgumentException("The puzzle " + puzzle.name() + " has no solution");
+        }
+        return Difficulty.SEARCH;
+    }
+}
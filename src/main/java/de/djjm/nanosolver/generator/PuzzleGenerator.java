@@ -0,0 +1,341 @@
+package de.djjm.nanosolver.generator;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.io.PuzzleFormat;
+import de.djjm.nanosolver.io.PuzzleWriter;
+import de.djjm.nanosolver.matrix.cell.CellLine;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates puzzles from random grids or images, e.g. as input for benchmarks and the {@link de.djjm.nanosolver.batch.BatchSolver}.
+ * The grid is the solution of the puzzle, so every generated puzzle can be solved. The grids are stored as one bit per
+ * cell and the clues are the runs of set bits, so generating a puzzle costs about as much as writing it.
+ * <p>
+ * The puzzle with a given index is always the same for the same seed, regardless of the number of threads.
+ * <p>
+ * Usage: {@code PuzzleGenerator [--count n] [--height h[-h]] [--width w[-w]] [--density d] [--seed s] [--image file]
+ * [--grade] [--difficulty line_logic|probing|search] [--threads n] [--format line|binary] [file]}, the puzzles are
+ * written to stdout if no file is given. The height and the width are drawn per puzzle from the given ranges. An image
+ * is scaled to the height and width, or to its own size if none is given, its dark pixels are the filled cells. Graded
+ * puzzles have their {@link Difficulty} in their name, a difficulty keeps only the puzzles of this difficulty. At most
+ * {@value #MAX_ATTEMPTS_PER_PUZZLE} puzzles are generated per puzzle of the difficulty, as the sizes and the density
+ * may not yield it at all.
+ */
+public class PuzzleGenerator {
+    private static final int PUZZLES_IN_FLIGHT_PER_THREAD = 16;
+    private static final long MAX_ATTEMPTS_PER_PUZZLE = 10_000;
+    /**
+     * the increment of the seeds of consecutive puzzles, see {@link SplittableRandom}
+     */
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    public PuzzleGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        long count = 100;
+        int[] height = {20, 20};
+        int[] width = {20, 20};
+        boolean sized = false;
+        double density = 0.5;
+        long seed = System.nanoTime();
+        String image = null;
+        boolean grade = false;
+        Difficulty difficulty = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        PuzzleFormat format = null;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--count" -> count = Long.parseLong(args[++i]);
+                case "--height" -> {
+                    height = parseRange(args[++i]);
+                    sized = true;
+                }
+                case "--width" -> {
+                    width = parseRange(args[++i]);
+                    sized = true;
+                }
+                case "--density" -> density = Double.parseDouble(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--image" -> image = args[++i];
+                case "--grade" -> grade = true;
+                case "--difficulty" -> difficulty = Difficulty.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--format" -> format = PuzzleFormat.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                default -> file = args[i];
+            }
+        }
+        if (format == null) {
+            format = file == null ? PuzzleFormat.LINE : PuzzleFormat.ofFileName(file);
+        }
+        try (OutputStream output = file == null ? System.out : Files.newOutputStream(Path.of(file));
+             PuzzleWriter writer = format.create(new BufferedOutputStream(output, 1 << 16))) {
+            if (image != null) {
+                BufferedImage source = ImageIO.read(Path.of(image).toFile());
+                if (source == null) {
+                    throw new IllegalArgumentException("The file " + image + " is no supported image");
+                }
+                Puzzle puzzle = fromImage(Path.of(image).getFileName().toString(), source,
+                        sized ? height[0] : source.getHeight(), sized ? width[0] : source.getWidth());
+                if (grade) {
+                    puzzle = withDifficulty(puzzle, new DifficultyGrader().grade(puzzle));
+                }
+                writer.write(puzzle);
+                return;
+            }
+            PuzzleGenerator generator = new PuzzleGenerator(seed);
+            long start = System.nanoTime();
+            Map<Difficulty, Long> counts = generator.run(count, height, width, density, grade || difficulty != null,
+                    difficulty, threads, writer);
+            System.err.println("# " + count + " puzzles " + (counts.isEmpty() ? "" : "of " + counts + " ") + "in " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * @return the minimum and the maximum of a range "min-max" or a single value
+     * @throws IllegalArgumentException if the range contains no size of at least 1
+     */
+    private static int[] parseRange(String range) {
+        int separator = range.indexOf('-');
+        int[] bounds;
+        if (separator < 0) {
+            int value = Integer.parseInt(range);
+            bounds = new int[]{value, value};
+        } else {
+            bounds = new int[]{Integer.parseInt(range.substring(0, separator)), Integer.parseInt(range.substring(separator + 1))};
+        }
+        if (bounds[0] < 1 || bounds[0] > bounds[1]) {
+            throw new IllegalArgumentException("The range " + range + " contains no size of at least 1");
+        }
+        return bounds;
+    }
+
+    /**
+     * generates and writes puzzles until the count is reached, the puzzles are generated and graded on a pool of worker
+     * threads and written in the order of their indices
+     *
+     * @param height     the minimum and maximum height
+     * @param width      the minimum and maximum width
+     * @param grade      true if the difficulty should be added to the names
+     * @param difficulty the difficulty of the written puzzles, null to write every puzzle
+     * @return the number of graded puzzles per difficulty including the ones which were not written, empty if the
+     * puzzles are not graded
+     * @throws IllegalStateException if {@value #MAX_ATTEMPTS_PER_PUZZLE} puzzles per requested puzzle were generated
+     *                               without finding enough of the difficulty, the ones found are written
+     */
+    public Map<Difficulty, Long> run(long count, int[] height, int[] width, double density, boolean grade,
+                                     Difficulty difficulty, int threads, PuzzleWriter writer)
+            throws IOException, InterruptedException, ExecutionException {
+        Map<Difficulty, Long> counts = new EnumMap<>(Difficulty.class);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<Generated>> inFlight = new ArrayDeque<>();
+        long maxAttempts = difficulty == null ? count
+                : count > Long.MAX_VALUE / MAX_ATTEMPTS_PER_PUZZLE ? Long.MAX_VALUE : count * MAX_ATTEMPTS_PER_PUZZLE;
+        try {
+            long index = 0;
+            long written = 0;
+            while (written < count) {
+                if (inFlight.isEmpty() && index == maxAttempts) {
+                    throw new IllegalStateException("Only " + written + " of " + count + " puzzles of the difficulty " +
+                            difficulty + " were found in " + maxAttempts + " puzzles");
+                }
+                while (inFlight.size() < threads * PUZZLES_IN_FLIGHT_PER_THREAD && index < maxAttempts) {
+                    long puzzleIndex = index++;
+                    inFlight.add(executor.submit(() -> {
+                        Puzzle puzzle = random(puzzleIndex, height, width, density);
+                        return new Generated(puzzle, grade ? new DifficultyGrader().grade(puzzle) : null);
+                    }));
+                }
+                Generated generated = inFlight.remove().get();
+                if (generated.difficulty() == null) {
+                    writer.write(generated.puzzle());
+                    written++;
+                    continue;
+                }
+                counts.merge(generated.difficulty(), 1L, Long::sum);
+                if (difficulty == null || generated.difficulty() == difficulty) {
+                    writer.write(withDifficulty(generated.puzzle(), generated.difficulty()));
+                    written++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return counts;
+    }
+
+    /**
+     * @param difficulty null if the puzzle was not graded
+     */
+    private record Generated(Puzzle puzzle, Difficulty difficulty) {
+    }
+
+    private static Puzzle withDifficulty(Puzzle puzzle, Difficulty difficulty) {
+        return new Puzzle(puzzle.name() + " " + difficulty.name().toLowerCase(Locale.ROOT), puzzle.horizontalClues(),
+                puzzle.verticalClues());
+    }
+
+    /**
+     * generates the puzzle with the index from a random grid
+     *
+     * @param height  the minimum and maximum height
+     * @param width   the minimum and maximum width
+     * @param density the probability of a cell to be filled
+     */
+    public Puzzle random(long index, int[] height, int[] width, double density) {
+        // the generator of the index only seeds the generator of the puzzle, the sequences of consecutive seeds overlap
+        SplittableRandom random = new SplittableRandom(new SplittableRandom(seed + index * SEED_INCREMENT).nextLong());
+        int rows = height[0] == height[1] ? height[0] : random.nextInt(height[0], height[1] + 1);
+        int columns = width[0] == width[1] ? width[0] : random.nextInt(width[0], width[1] + 1);
+        return fromGrid("random-" + index, randomGrid(random, rows, columns, density), columns);
+    }
+
+    /**
+     * @return the words of the filled cells per row
+     */
+    static long[][] randomGrid(SplittableRandom random, int height, int width, double density) {
+        int wordCount = CellLine.wordCount(width);
+        long lastWordMask = -1L >>> (-width & 63);
+        long[][] grid = new long[height][wordCount];
+        for (long[] row : grid) {
+            for (int w = 0; w < wordCount; w++) {
+                if (density == 0.5) {
+                    row[w] = random.nextLong();
+                } else {
+                    long word = 0;
+                    for (int bit = 0; bit < 64; bit++) {
+                        if (random.nextDouble() < density) {
+                            word |= 1L << bit;
+                        }
+                    }
+                    row[w] = word;
+                }
+            }
+            row[wordCount - 1] &= lastWordMask;
+        }
+        return grid;
+    }
+
+    /**
+     * creates the puzzle whose solution is the image scaled to the size, a cell is filled if the average luminance of
+     * its pixels is below one half
+     */
+    public static Puzzle fromImage(String name, BufferedImage image, int height, int width) {
+        int imageHeight = image.getHeight();
+        int imageWidth = image.getWidth();
+        int[] pixels = image.getRGB(0, 0, imageWidth, imageHeight, null, 0, imageWidth);
+        long[][] grid = new long[height][CellLine.wordCount(width)];
+        for (int row = 0; row < height; row++) {
+            int fromY = row * imageHeight / height;
+            int toY = Math.max((row + 1) * imageHeight / height, fromY + 1);
+            for (int column = 0; column < width; column++) {
+                int fromX = column * imageWidth / width;
+                int toX = Math.max((column + 1) * imageWidth / width, fromX + 1);
+                long luminance = 0;
+                for (int y = fromY; y < toY; y++) {
+                    for (int x = fromX; x < toX; x++) {
+                        luminance += luminance(pixels[y * imageWidth + x]);
+                    }
+                }
+                if (2 * luminance < 255L * (toY - fromY) * (toX - fromX)) {
+                    grid[row][column >>> 6] |= 1L << column;
+                }
+            }
+        }
+        return fromGrid(name, grid, width);
+    }
+
+    /**
+     * @return the luminance between 0 and 255, transparent pixels are white
+     */
+    private static int luminance(int argb) {
+        int alpha = argb >>> 24;
+        int luminance = (299 * (argb >> 16 & 0xFF) + 587 * (argb >> 8 & 0xFF) + 114 * (argb & 0xFF)) / 1000;
+        return (luminance * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    /**
+     * @param grid the words of the filled cells per row
+     * @return the puzzle whose clues are the runs of filled cells of the grid
+     */
+    static Puzzle fromGrid(String name, long[][] grid, int width) {
+        int height = grid.length;
+        long[][] columns = new long[width][CellLine.wordCount(height)];
+        int[][] horizontalClues = new int[height][];
+        for (int row = 0; row < height; row++) {
+            horizontalClues[row] = runs(grid[row]);
+            for (int w = 0; w < grid[row].length; w++) {
+                for (long word = grid[row][w]; word != 0; word &= word - 1) {
+                    columns[(w << 6) + Long.numberOfTrailingZeros(word)][row >>> 6] |= 1L << row;
+                }
+            }
+        }
+        int[][] verticalClues = new int[width][];
+        for (int column = 0; column < width; column++) {
+            verticalClues[column] = runs(columns[column]);
+        }
+        return new Puzzle(name, horizontalClues, verticalClues);
+    }
+
+    /**
+     * @return the lengths of the runs of set bits, a single 0 if no bit is set, the bits behind the line have to be clear
+     */
+    private static int[] runs(long[] words) {
+        int count = 0;
+        long carry = 0;
+        for (long word : words) {
+            count += Long.bitCount(word & ~(word << 1 | carry));
+            carry = word >>> 63;
+        }
+        if (count == 0) {
+            return new int[]{0};
+        }
+        int[] runs = new int[count];
+        int end = 0;
+        for (int run = 0; run < count; run++) {
+            int start = nextBit(words, end, true);
+            end = nextBit(words, start, false);
+            runs[run] = end - start;
+        }
+        return runs;
+    }
+
+    /**
+     * @return the index of the next bit with the value from the index on, the number of bits if there is none
+     */
+    private static int nextBit(long[] words, int from, boolean set) {
+        int w = from >>> 6;
+        if (w >= words.length) {
+            return words.length << 6;
+        }
+        long word = (set ? words[w] : ~words[w]) & -1L << from;
+        while (word == 0) {
+            if (++w == words.length) {
+                return words.length << 6;
+            }
+            word = set ? words[w] : ~words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,251 @@
+package de.djjm.nanosolver.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads puzzles in the binary format written by {@link BinaryPuzzleWriter}.
+ * The clues are decoded directly from the bytes into int arrays, {@link #mapped(Path)} reads them from a memory-mapped
+ * file without copying the file into the heap.
+ * <p>
+ * Every count is checked against the size of the puzzle before anything is allocated. A record has no length prefix,
+ * so after a corrupt record the position of the next one is unknown: the reader throws for the corrupt record and
+ * then reports the end of the input, so the puzzles behind it are not read. A record which is read completely, but
+ * whose clues do not fit into their lines, is only an invalid puzzle: the reader throws for it and continues with the
+ * next record. {@link BinaryPuzzleWriter} does not write such puzzles.
+ */
+public class BinaryPuzzleReader implements PuzzleReader {
+    /**
+     * the size of the part of a file which is mapped at once, so files bigger than 2 GB can be read as well
+     */
+    private static final long MAPPING_WINDOW = 64L << 20;
+    private static final int END = -1;
+    /**
+     * the maximal height and width of a puzzle
+     */
+    static final int MAX_SIZE = 1 << 17;
+    static final int MAX_NAME_LENGTH = 1 << 16;
+
+    private final ByteSource source;
+    private boolean corrupt;
+
+    public BinaryPuzzleReader(InputStream input) throws IOException {
+        this(new StreamSource(new BufferedInputStream(input)));
+    }
+
+    private BinaryPuzzleReader(ByteSource source) throws IOException {
+        this.source = source;
+        readHeader();
+    }
+
+    /**
+     * @return a reader, which maps the file into memory
+     */
+    public static BinaryPuzzleReader mapped(Path file) throws IOException {
+        return new BinaryPuzzleReader(new MappedSource(FileChannel.open(file, StandardOpenOption.READ)));
+    }
+
+    private void readHeader() throws IOException {
+        for (byte magicByte : BinaryPuzzleWriter.MAGIC) {
+            if (source.read() != magicByte) {
+                throw new IllegalArgumentException("The input is not in the binary puzzle format");
+            }
+        }
+        int version = source.read();
+        if (version != BinaryPuzzleWriter.VERSION) {
+            throw new IllegalArgumentException("The binary puzzle format version " + version + " is not supported");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the next puzzle is corrupt, afterwards the reader returns null, or if its
+     *                                  clues do not fit into its lines, afterwards the reader continues behind it
+     */
+    @Override
+    public Puzzle next() throws IOException {
+        if (corrupt) {
+            return null;
+        }
+        int first = source.read();
+        if (first == END) {
+            return null;
+        }
+        Puzzle puzzle;
+        try {
+            puzzle = readPuzzle(first);
+        } catch (IllegalArgumentException e) {
+            corrupt = true;
+            throw e;
+        }
+        checkClues(puzzle);
+        return puzzle;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the clues of a line do not fit into it with one empty cell between them
+     */
+    static void checkClues(Puzzle puzzle) {
+        checkClues(puzzle.name(), puzzle.horizontalClues(), puzzle.getWidth(), "row");
+        checkClues(puzzle.name(), puzzle.verticalClues(), puzzle.getHeight(), "column");
+    }
+
+    private static void checkClues(String name, int[][] lines, int length, String direction) {
+        for (int i = 0; i < lines.length; i++) {
+            long needed = -1;
+            for (int clue : lines[i]) {
+                if (clue < 0) {
+                    throw new IllegalArgumentException("The " + direction + " " + i + " of the puzzle " + name +
+                            " has the negative clue " + clue);
+                }
+                if (clue > 0) {
+                    needed += clue + 1;
+                }
+            }
+            if (needed > length) {
+                throw new IllegalArgumentException("The clues " + Arrays.toString(lines[i]) + " of the " + direction + " " +
+                        i + " of the puzzle " + name + " do not fit into its length " + length);
+            }
+        }
+    }
+
+    private Puzzle readPuzzle(int first) throws IOException {
+        byte[] name = new byte[checkCount(readVarint(first), 0, MAX_NAME_LENGTH, "name length")];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (byte) readByte();
+        }
+        int height = readCount(1, MAX_SIZE, "height");
+        int width = readCount(1, MAX_SIZE, "width");
+        int[][] horizontalClues = readLines(height, width);
+        int[][] verticalClues = readLines(width, height);
+        return new Puzzle(new String(name, StandardCharsets.UTF_8), horizontalClues, verticalClues);
+    }
+
+    /**
+     * @param length the length of the lines, which bounds the number of their clues, whether the clues fit into the
+     *               line is checked after the whole record is read
+     */
+    private int[][] readLines(int count, int length) throws IOException {
+        int[][] lines = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int clueCount = readCount(0, length, "clue count");
+            if (clueCount == 0) {
+                lines[i] = new int[]{0};
+                continue;
+            }
+            lines[i] = new int[clueCount];
+            for (int j = 0; j < clueCount; j++) {
+                lines[i][j] = readVarint(readByte());
+            }
+        }
+        return lines;
+    }
+
+    private int readCount(int min, int max, String description) throws IOException {
+        return checkCount(readVarint(readByte()), min, max, description);
+    }
+
+    /**
+     * a corrupt varint can decode to any number, which must not be used as the size of an array
+     */
+    private static int checkCount(int count, int min, int max, String description) {
+        if (count < min || count > max) {
+            throw new IllegalArgumentException("The input contains the " + description + " " + count +
+                    ", which is not between " + min + " and " + max);
+        }
+        return count;
+    }
+
+    /**
+     * @param first the first byte of the varint, which was already read
+     */
+    private int readVarint(int first) throws IOException {
+        int value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift > 28) {
+                throw new IllegalArgumentException("The input contains a varint longer than 5 bytes");
+            }
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int b = source.read();
+        if (b == END) {
+            throw new IllegalArgumentException("The input ends inside of a puzzle");
+        }
+        return b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private interface ByteSource {
+        /**
+         * @return the next byte as unsigned value or {@link #END}
+         */
+        int read() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private record StreamSource(InputStream input) implements ByteSource {
+        @Override
+        public int read() throws IOException {
+            return input.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    private static class MappedSource implements ByteSource {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedSource(FileChannel channel) throws IOException {
+            this.channel = channel;
+            size = channel.size();
+            windowStart = 0;
+            map();
+        }
+
+        private void map() throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAPPING_WINDOW, size - windowStart));
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!window.hasRemaining()) {
+                windowStart += window.capacity();
+                if (windowStart >= size) {
+                    return END;
+                }
+                map();
+            }
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
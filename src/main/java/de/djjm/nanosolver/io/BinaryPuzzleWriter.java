@@ -0,0 +1,116 @@
+package de.djjm.nanosolver.io;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes puzzles in the compact binary format read by {@link BinaryPuzzleReader}.
+ * <p>
+ * The file starts with the magic bytes {@code NONB} and a version byte. Every puzzle follows as the length and UTF-8
+ * bytes of its name, its height, its width and the clues of every row and column, each line as the number of clues
+ * followed by the clues. All numbers are stored as unsigned varints with 7 bits per byte, so a typical clue takes a
+ * single byte. A line without filled cells has no clues.
+ * <p>
+ * Usage: {@code BinaryPuzzleWriter input.txt output.nonb} converts a file in the format of {@link LinePuzzleReader},
+ * puzzles which can not be parsed or written are skipped.
+ */
+public class BinaryPuzzleWriter implements PuzzleWriter {
+    static final byte[] MAGIC = {'N', 'O', 'N', 'B'};
+    static final int VERSION = 1;
+
+    private final OutputStream output;
+
+    public BinaryPuzzleWriter(OutputStream output) throws IOException {
+        this.output = new BufferedOutputStream(output);
+        this.output.write(MAGIC);
+        this.output.write(VERSION);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: BinaryPuzzleWriter <input> <output>");
+        }
+        try (PuzzleReader reader = new LinePuzzleReader(new FileReader(args[0], StandardCharsets.UTF_8));
+             BinaryPuzzleWriter writer = new BinaryPuzzleWriter(new FileOutputStream(args[1]))) {
+            while (true) {
+                Puzzle puzzle;
+                try {
+                    puzzle = reader.next();
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipped: " + e.getMessage());
+                    continue;
+                }
+                if (puzzle == null) {
+                    break;
+                }
+                try {
+                    writer.write(puzzle);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipped: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@link BinaryPuzzleReader} would reject the puzzle, nothing is written then
+     */
+    @Override
+    public void write(Puzzle puzzle) throws IOException {
+        byte[] name = puzzle.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length > BinaryPuzzleReader.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("The name of the puzzle " + puzzle.name() + " is longer than " +
+                    BinaryPuzzleReader.MAX_NAME_LENGTH + " bytes");
+        }
+        checkSize(puzzle.name(), puzzle.getHeight(), "height");
+        checkSize(puzzle.name(), puzzle.getWidth(), "width");
+        BinaryPuzzleReader.checkClues(puzzle);
+        writeVarint(name.length);
+        output.write(name);
+        writeVarint(puzzle.getHeight());
+        writeVarint(puzzle.getWidth());
+        writeLines(puzzle.horizontalClues());
+        writeLines(puzzle.verticalClues());
+    }
+
+    private static void checkSize(String name, int size, String dimension) {
+        if (size < 1 || size > BinaryPuzzleReader.MAX_SIZE) {
+            throw new IllegalArgumentException("The " + dimension + " " + size + " of the puzzle " + name +
+                    " is not between 1 and " + BinaryPuzzleReader.MAX_SIZE);
+        }
+    }
+
+    private void writeLines(int[][] lines) throws IOException {
+        for (int[] clues : lines) {
+            int count = 0;
+            for (int clue : clues) {
+                if (clue > 0) {
+                    count++;
+                }
+            }
+            writeVarint(count);
+            for (int clue : clues) {
+                if (clue > 0) {
+                    writeVarint(clue);
+                }
+            }
+        }
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,80 @@
+package de.djjm.nanosolver.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads one puzzle per text line in the format {@code name;rows;columns}.
+ * The clues of the lines are separated by commas and the numbers of one line by spaces, for example
+ * {@code cross;1,3,1;1,3,1}. Empty lines and lines starting with # are skipped.
+ */
+public class LinePuzzleReader implements PuzzleReader {
+    private static final char FIELD_SEPARATOR = ';';
+    private static final char LINE_SEPARATOR = ',';
+    private static final char COMMENT = '#';
+
+    private final Reader reader;
+    private final TextScanner scanner;
+
+    public LinePuzzleReader(Reader reader) {
+        this.reader = reader;
+        scanner = new TextScanner(reader);
+    }
+
+    @Override
+    public Puzzle next() throws IOException {
+        while (true) {
+            scanner.skipBlanks();
+            int c = scanner.peek();
+            if (c == TextScanner.END) {
+                return null;
+            }
+            if (c == COMMENT || scanner.atLineEnd()) {
+                scanner.skipLine();
+                continue;
+            }
+            int lineNumber = scanner.getLineNumber();
+            try {
+                return parse(lineNumber);
+            } catch (IllegalArgumentException e) {
+                // continue with the next puzzle on the next call
+                if (scanner.getLineNumber() == lineNumber) {
+                    scanner.skipLine();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private Puzzle parse(int lineNumber) throws IOException {
+        String name = scanner.readUntil(FIELD_SEPARATOR).trim();
+        int[][] horizontalClues = parseLines();
+        if (scanner.read() != FIELD_SEPARATOR) {
+            throw new IllegalArgumentException("Line " + lineNumber + " has no columns, but name;rows;columns is required");
+        }
+        int[][] verticalClues = parseLines();
+        if (!scanner.atLineEnd()) {
+            throw new IllegalArgumentException("Line " + lineNumber + " has more than the fields name;rows;columns");
+        }
+        scanner.skipLine();
+        return new Puzzle(name.isEmpty() ? "line " + lineNumber : name, horizontalClues, verticalClues);
+    }
+
+    /**
+     * @return the clues of the lines until the next field separator or the end of the line
+     */
+    private int[][] parseLines() throws IOException {
+        List<int[]> lines = new ArrayList<>();
+        do {
+            lines.add(scanner.readNumbers(' ', LINE_SEPARATOR, FIELD_SEPARATOR));
+        } while (scanner.peek() == LINE_SEPARATOR && scanner.read() == LINE_SEPARATOR);
+        return lines.toArray(new int[0][]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
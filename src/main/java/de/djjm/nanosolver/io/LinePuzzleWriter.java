@@ -0,0 +1,60 @@
+package de.djjm.nanosolver.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one puzzle per text line in the format read by {@link LinePuzzleReader}. A line without filled cells is
+ * written as 0.
+ */
+public class LinePuzzleWriter implements PuzzleWriter {
+    private final Writer writer;
+    private final StringBuilder line;
+
+    public LinePuzzleWriter(Writer writer) {
+        this.writer = new BufferedWriter(writer);
+        line = new StringBuilder();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name contains a separator or a line break
+     */
+    @Override
+    public void write(Puzzle puzzle) throws IOException {
+        String name = puzzle.name();
+        if (name.indexOf(';') >= 0 || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("The name \"" + name + "\" can not be written in the line format");
+        }
+        line.setLength(0);
+        line.append(name).append(';');
+        appendLines(puzzle.horizontalClues());
+        line.append(';');
+        appendLines(puzzle.verticalClues());
+        line.append('\n');
+        writer.append(line);
+    }
+
+    private void appendLines(int[][] lines) {
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            int[] clues = lines[i];
+            if (clues.length == 0) {
+                line.append('0');
+            }
+            for (int j = 0; j < clues.length; j++) {
+                if (j > 0) {
+                    line.append(' ');
+                }
+                line.append(clues[j]);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,107 @@
+package de.djjm.nanosolver.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads puzzles in the common .non text format:
+ * <pre>
+ * title "cross"
+ * width 3
+ * height 3
+ * rows
+ * 1
+ * 3
+ * 1
+ * columns
+ * 1
+ * 3
+ * 1
+ * </pre>
+ * The clues of one line are separated by commas, an empty line or 0 stands for a line without filled cells.
+ * Other keywords like {@code catalogue} or {@code goal} are skipped. Several puzzles can follow each other, a puzzle
+ * ends as soon as its rows and columns are read.
+ */
+public class NonPuzzleReader implements PuzzleReader {
+    private static final char CLUE_SEPARATOR = ',';
+
+    private final Reader reader;
+    private final TextScanner scanner;
+    private int puzzleNumber;
+
+    public NonPuzzleReader(Reader reader) {
+        this.reader = reader;
+        scanner = new TextScanner(reader);
+        puzzleNumber = 0;
+    }
+
+    @Override
+    public Puzzle next() throws IOException {
+        puzzleNumber++;
+        String title = null;
+        int width = -1;
+        int height = -1;
+        int[][] horizontalClues = null;
+        int[][] verticalClues = null;
+        while (horizontalClues == null || verticalClues == null) {
+            scanner.skipBlanks();
+            if (scanner.peek() == TextScanner.END) {
+                if (title == null && width < 0 && height < 0 && horizontalClues == null && verticalClues == null) {
+                    return null;
+                }
+                throw new IllegalArgumentException("The input ends before the rows and columns of puzzle " + puzzleNumber + " are read");
+            }
+            String keyword = scanner.readWord();
+            scanner.skipBlanks();
+            switch (keyword) {
+                case "title" -> title = unquote(scanner.readLine());
+                case "width" -> width = readDimension("width");
+                case "height" -> height = readDimension("height");
+                case "rows" -> horizontalClues = readClues(height, "height");
+                case "columns" -> verticalClues = readClues(width, "width");
+                default -> scanner.skipLine();
+            }
+        }
+        return new Puzzle(title == null ? "puzzle " + puzzleNumber : title, horizontalClues, verticalClues);
+    }
+
+    /**
+     * the dimension is the number of lines allocated by {@link #readClues(int, String)}, so it is bounded like the size
+     * of a binary puzzle
+     */
+    private int readDimension(String dimension) throws IOException {
+        int size = scanner.readNumber();
+        if (size > BinaryPuzzleReader.MAX_SIZE) {
+            throw new IllegalArgumentException("Line " + scanner.getLineNumber() + ": the " + dimension + " " + size +
+                    " is bigger than " + BinaryPuzzleReader.MAX_SIZE);
+        }
+        scanner.skipLine();
+        return size;
+    }
+
+    private int[][] readClues(int count, String dimension) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Line " + scanner.getLineNumber() + ": the " + dimension +
+                    " has to be given before the clues");
+        }
+        scanner.skipLine();
+        int[][] clues = new int[count][];
+        for (int i = 0; i < count; i++) {
+            clues[i] = scanner.readNumbers(CLUE_SEPARATOR);
+            scanner.skipLine();
+        }
+        return clues;
+    }
+
+    private static String unquote(String text) {
+        if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+            return text.substring(1, text.length() - 1);
+        }
+        return text;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,33 @@
+package de.djjm.nanosolver.io;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellGrid;
+
+/**
+ * The clues of a nonogram as read from an input
+ *
+ * @param name            the name of the puzzle, used to report results
+ * @param horizontalClues the clues of the rows, see {@link Nonogram#Nonogram(int[][], int[][])}
+ * @param verticalClues   the clues of the columns
+ */
+public record Puzzle(String name, int[][] horizontalClues, int[][] verticalClues) {
+
+    public int getHeight() {
+        return horizontalClues.length;
+    }
+
+    public int getWidth() {
+        return verticalClues.length;
+    }
+
+    public Nonogram toNonogram() {
+        return new Nonogram(horizontalClues, verticalClues);
+    }
+
+    /**
+     * @param grid the store of the cells, see {@link Nonogram#Nonogram(int[][], int[][], CellGrid)}
+     */
+    public Nonogram toNonogram(CellGrid grid) {
+        return new Nonogram(horizontalClues, verticalClues, grid);
+    }
+}
@@ -0,0 +1,72 @@
+package de.djjm.nanosolver.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The supported puzzle file formats.
+ */
+public enum PuzzleFormat {
+    /**
+     * one puzzle per line, see {@link LinePuzzleReader}
+     */
+    LINE,
+    /**
+     * the .non text format, see {@link NonPuzzleReader}
+     */
+    NON,
+    /**
+     * the compact binary format, see {@link BinaryPuzzleReader}
+     */
+    BINARY;
+
+    /**
+     * @return the format belonging to the extension of the file name, {@link #LINE} for unknown extensions
+     */
+    public static PuzzleFormat ofFileName(String fileName) {
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".non")) {
+            return NON;
+        }
+        if (lowerCaseName.endsWith(".nonb")) {
+            return BINARY;
+        }
+        return LINE;
+    }
+
+    public PuzzleReader open(InputStream input) throws IOException {
+        return switch (this) {
+            case LINE -> new LinePuzzleReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            case NON -> new NonPuzzleReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            case BINARY -> new BinaryPuzzleReader(input);
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if puzzles can not be written in the format
+     */
+    public PuzzleWriter create(OutputStream output) throws IOException {
+        return switch (this) {
+            case LINE -> new LinePuzzleWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            case BINARY -> new BinaryPuzzleWriter(output);
+            case NON -> throw new IllegalArgumentException("Puzzles can not be written in the format " + this);
+        };
+    }
+
+    /**
+     * opens the file, binary files are memory-mapped
+     */
+    public PuzzleReader open(Path file) throws IOException {
+        if (this == BINARY) {
+            return BinaryPuzzleReader.mapped(file);
+        }
+        return open(Files.newInputStream(file));
+    }
+}
@@ -0,0 +1,17 @@
+package de.djjm.nanosolver.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads puzzles one after another from an input, so inputs of any size can be processed
+ */
+public interface PuzzleReader extends Closeable {
+    /**
+     * @return the next puzzle or null if the input is exhausted
+     * @throws IOException              if the input can not be read
+     * @throws IllegalArgumentException if the next puzzle can not be parsed, the reader continues after it unless
+     *                                  the format does not allow to find the next puzzle
+     */
+    Puzzle next() throws IOException;
+}
@@ -0,0 +1,11 @@
+package de.djjm.nanosolver.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes puzzles one after another to an output, so they can be read again by the {@link PuzzleReader} of the format
+ */
+public interface PuzzleWriter extends Closeable {
+    void write(Puzzle puzzle) throws IOException;
+}
@@ -0,0 +1,180 @@
+package de.djjm.nanosolver.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Scans text from a reader through a reused buffer. Numbers are parsed directly from the buffered characters, so
+ * reading clues does not create intermediate strings.
+ */
+class TextScanner {
+    static final int END = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private int lineNumber;
+    private int[] numbers;
+
+    TextScanner(Reader reader) {
+        this.reader = reader;
+        buffer = new char[BUFFER_SIZE];
+        position = 0;
+        limit = 0;
+        lineNumber = 1;
+        numbers = new int[16];
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the next character without consuming it or {@link #END}
+     */
+    int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return END;
+            }
+        }
+        return buffer[position];
+    }
+
+    int read() throws IOException {
+        int c = peek();
+        if (c != END) {
+            position++;
+            if (c == '\n') {
+                lineNumber++;
+            }
+        }
+        return c;
+    }
+
+    boolean atLineEnd() throws IOException {
+        int c = peek();
+        return c == END || c == '\n' || c == '\r';
+    }
+
+    /**
+     * skips spaces and tabs
+     */
+    void skipBlanks() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t') {
+            position++;
+            c = peek();
+        }
+    }
+
+    /**
+     * skips the rest of the line including the line break
+     */
+    void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != END && c != '\n');
+    }
+
+    /**
+     * @return the rest of the line without leading and trailing blanks, the line break is consumed
+     */
+    String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (!atLineEnd()) {
+            line.append((char) read());
+        }
+        skipLine();
+        return line.toString().trim();
+    }
+
+    /**
+     * @return the characters until the terminator, which is consumed but not included
+     */
+    String readUntil(char terminator) throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (peek() != terminator) {
+            if (atLineEnd()) {
+                throw new IllegalArgumentException("Line " + lineNumber + " ends before '" + terminator + "'");
+            }
+            text.append((char) read());
+        }
+        read();
+        return text.toString();
+    }
+
+    /**
+     * @return the next word consisting of letters, empty if the next character is no letter
+     */
+    String readWord() throws IOException {
+        StringBuilder word = new StringBuilder();
+        while (Character.isLetter(peek())) {
+            word.append((char) read());
+        }
+        return word.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no number or it does not fit into an int
+     */
+    int readNumber() throws IOException {
+        int c = peek();
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Line " + lineNumber + " contains '" + (c == END ? "end of input" : (char) c) +
+                    "' where a number is expected");
+        }
+        int number = 0;
+        while (c >= '0' && c <= '9') {
+            if (number > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                throw new IllegalArgumentException("Line " + lineNumber + " contains a number bigger than " +
+                        Integer.MAX_VALUE);
+            }
+            number = number * 10 + (c - '0');
+            position++;
+            c = peek();
+        }
+        return number;
+    }
+
+    /**
+     * reads numbers separated by blanks or the given separator until the line end
+     *
+     * @return the numbers read, a single 0 if there was none
+     */
+    int[] readNumbers(char separator) throws IOException {
+        return readNumbers(separator, '\n', '\n');
+    }
+
+    /**
+     * reads numbers separated by blanks or the given separator until one of the terminators or the line end
+     *
+     * @return the numbers read, a single 0 if there was none
+     */
+    int[] readNumbers(char separator, char terminator, char alternativeTerminator) throws IOException {
+        int count = 0;
+        while (true) {
+            skipBlanks();
+            int c = peek();
+            if (c == terminator || c == alternativeTerminator || atLineEnd()) {
+                break;
+            }
+            if (c == separator) {
+                position++;
+                continue;
+            }
+            if (count == numbers.length) {
+                numbers = Arrays.copyOf(numbers, count * 2);
+            }
+            numbers[count++] = readNumber();
+        }
+        return count == 0 ? new int[]{0} : Arrays.copyOf(numbers, count);
+    }
+}
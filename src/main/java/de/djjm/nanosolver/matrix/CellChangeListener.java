@@ -0,0 +1,18 @@
+package de.djjm.nanosolver.matrix;
+
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+/**
+ * Gets informed about every cell a {@link NonoLine} deduced during a solve step
+ */
+@FunctionalInterface
+public interface CellChangeListener {
+    CellChangeListener NONE = (index, status) -> {
+    };
+
+    /**
+     * @param index  the position of the cell inside the line
+     * @param status the new status of the cell
+     */
+    void cellChanged(int index, CellStatus status);
+}
@@ -0,0 +1,50 @@
+package de.djjm.nanosolver.matrix;
+
+/**
+ * Describes why the clues of a line can not be fulfilled anymore. It is created instead of throwing an exception, so
+ * a search can prune a branch without building messages or stack traces. The message is only built by
+ * {@link #toString()}.
+ *
+ * @param horizontal true if the line is a row
+ * @param line       the index of the row or column
+ * @param clue       the index of the clue, which can not be placed, or {@link #NONE}
+ * @param cell       the index of the cell inside the line, which has a conflicting status, or {@link #NONE}
+ */
+public record Contradiction(Kind kind, boolean horizontal, int line, int clue, int cell) {
+    public static final int NONE = -1;
+
+    public enum Kind {
+        /**
+         * a filled cell can not be covered by any clue
+         */
+        CELL_OUTSIDE_CLUES,
+        /**
+         * a clue does not fit between its possible positions
+         */
+        CLUE_DOES_NOT_FIT,
+        /**
+         * a cell is required by a clue, but is already empty
+         */
+        REQUIRED_CELL_EMPTY,
+        /**
+         * the exact line solver found no placement of the clues
+         */
+        NO_PLACEMENT
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder()
+                .append(kind)
+                .append(" in ")
+                .append(horizontal ? "row " : "column ")
+                .append(line);
+        if (clue != NONE) {
+            description.append(", clue ").append(clue);
+        }
+        if (cell != NONE) {
+            description.append(", cell ").append(cell);
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package de.djjm.nanosolver.matrix;
+
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+/**
+ * Gets informed about every cell of a {@link Nonogram} deduced by one of its lines
+ */
+@FunctionalInterface
+public interface GridChangeListener {
+    GridChangeListener NONE = (row, column, status, deducedByRow) -> {
+    };
+
+    /**
+     * @param status       the new status of the cell
+     * @param deducedByRow true if the row of the cell deduced it, false if its column did
+     */
+    void cellDeduced(int row, int column, CellStatus status, boolean deducedByRow);
+}
@@ -0,0 +1,46 @@
+package de.djjm.nanosolver.matrix;
+
+/**
+ * Orders the dirty lines a {@link Nonogram} solves in one solve step. Lines solved early in a step already pass their
+ * deductions to the crossing lines solved later in the same step, so solving the most productive lines first reaches
+ * the fixpoint with fewer line solver calls. Lines with the same priority are solved in the order of their ids, rows
+ * before columns.
+ */
+public enum LineSchedule {
+    /**
+     * the rows from top to bottom and then the columns from left to right
+     */
+    ROUND_ROBIN {
+        @Override
+        int priority(NonoLine line, int changedCells) {
+            return 0;
+        }
+    },
+    /**
+     * the lines with the lowest slack first, they are the most constrained by their clues
+     */
+    SLACK {
+        @Override
+        int priority(NonoLine line, int changedCells) {
+            return line.getSlack();
+        }
+    },
+    /**
+     * the lines expected to deduce the most cells first. A line can deduce more, the more crossing cells got known
+     * since it was solved last and the more unknown cells are left for its slack, because the clues of a line with a
+     * low slack overlap in most of the cells.
+     */
+    INFORMATION_GAIN {
+        @Override
+        int priority(NonoLine line, int changedCells) {
+            int unknown = line.getCells().countUnknown();
+            return line.getSlack() * 1024 / ((changedCells + 1) * (unknown + 1));
+        }
+    };
+
+    /**
+     * @param changedCells the number of cells the crossing lines deduced since the line was solved last
+     * @return the priority of the line, lines with a lower priority are solved first
+     */
+    abstract int priority(NonoLine line, int changedCells);
+}
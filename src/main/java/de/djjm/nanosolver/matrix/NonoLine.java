@@ -1,107 +1,297 @@
 package de.djjm.nanosolver.matrix;
 
+import de.djjm.nanosolver.matrix.cell.CellLine;
 import de.djjm.nanosolver.matrix.cell.CellStatus;
-import de.djjm.nanosolver.matrix.cell.NonoCell;
+import de.djjm.nanosolver.matrix.cell.OverlapKernel;
 import de.djjm.nanosolver.matrix.clue.Clue;
+import de.djjm.nanosolver.matrix.clue.ClueRangeIndex;
+import de.djjm.nanosolver.matrix.clue.ClueRanges;
+import de.djjm.nanosolver.matrix.solver.DynamicLineSolver;
+import de.djjm.nanosolver.matrix.solver.LineSolutionCache;
+import de.djjm.nanosolver.matrix.solver.LineSolver;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.List;
 
 public class NonoLine {
-    private final NonoCell[] cells;
+    /**
+     * the cells of the line, usually a view of the grid shared with the crossing lines. The line is saved on the trail
+     * before it writes a cell, so the state saved first on a level holds every cell as it was before the level.
+     */
+    private final CellLine cells;
     private final int length;
-    private final List<Clue> lineClues;
+    private final ClueRanges lineClues;
+    private final int[] clueNumbers;
+    private final int[] clueLengths;
+    private final long[] requiredCells;
+    private final long[] reachableCells;
+    private final long[] knownCells;
+    private final ClueRangeIndex clueRangeIndex;
+    private final int slack;
+    private CellChangeListener changeListener;
+    private LineSolver exactSolver;
+    private LineSolutionCache solutionCache;
+    private SolverListener solverListener;
+    /**
+     * saves the line before its first change on a level. A crossing line may write a cell of the line before or after
+     * the line was saved, but it was saved itself before, and undoing restores the newest saved state first, so every
+     * cell ends with the status of the oldest state saved on the level.
+     */
+    private Trail trail;
+    private int trailLevel;
     private boolean updated;
     private boolean finished;
+    private boolean reportPending;
+    /**
+     * the contradiction found by the last solve step, null if there was none
+     */
+    private Contradiction.Kind conflictKind;
+    private int conflictClue;
+    private int conflictCell;
 
     public NonoLine(int length, List<Integer> lineClueNumbers) {
-        this.length = length;
+        this(length, lineClueNumbers.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public NonoLine(int length, int[] lineClueNumbers) {
+        this(new CellLine(checkLength(length)), lineClueNumbers);
+    }
+
+    /**
+     *
+     */
+    public NonoLine(String nanoLine) {
+        this(parseCells(nanoLine), parseClues(nanoLine));
+    }
+
+    /**
+     * Creates a copy of the line with the status of its cells, the possible positions of the clues are calculated again
+     * by the first solve step of the copy
+     */
+    public NonoLine(NonoLine other) {
+        this(new CellLine(other.cells), other.clueNumbers);
+        exactSolver = other.exactSolver;
+        solutionCache = other.solutionCache;
+    }
+
+    /**
+     * Creates a copy of the line like {@link #NonoLine(NonoLine)}, whose cells are the given ones, e.g. a view of a
+     * row or a column of the grid of the nonogram
+     */
+    NonoLine(NonoLine other, CellLine cells) {
+        this(cells, other.clueNumbers);
+        exactSolver = other.exactSolver;
+        solutionCache = other.solutionCache;
+    }
+
+    NonoLine(CellLine cells, int[] lineClueNumbers) {
+        this.cells = cells;
+        length = checkLength(cells.getLength());
         checkNonoLineRequirements(lineClueNumbers);
+        clueNumbers = lineClueNumbers;
 
-        cells = new NonoCell[length];
-        initializeCells();
+        requiredCells = new long[CellLine.wordCount(length)];
+        reachableCells = new long[CellLine.wordCount(length)];
+        knownCells = new long[CellLine.wordCount(length)];
+        clueRangeIndex = new ClueRangeIndex(length);
 
-        lineClues = new ArrayList<>();
-        initializeClues(length, lineClueNumbers);
+        lineClues = new ClueRanges(lineClueNumbers, length);
+        clueLengths = calculateClueLengths(lineClueNumbers);
+        slack = calculateSlack(lineClueNumbers);
+        changeListener = CellChangeListener.NONE;
+        exactSolver = DynamicLineSolver.INSTANCE;
+        solverListener = SolverListener.NONE;
 
         updated = true;
         finished = false;
     }
 
-    private void checkNonoLineRequirements(List<Integer> lineClueNumbers) {
-        if (lineClueNumbers.isEmpty()) {
-            throw new IllegalArgumentException("lineClueNumbers is empty, but is required to hold at least one value." +
-                    " If the line should be empty, the List needs to be filled with a single 0");
-        }
+    private static int checkLength(int length) {
         if (length <= 0) {
             throw new IllegalArgumentException("There is no NonoLine length specified." +
                     " The length of a NonoLine has to be at least 1");
         }
+        return length;
     }
 
-    private void initializeClues(int length, List<Integer> lineClueNumbers) {
-        for (Integer lineClueNumber : lineClueNumbers) {
-            lineClues.add(Clue.initializeClue(lineClueNumber, length - 1));
+    private static CellLine parseCells(String nanoLine) {
+        char[] cellInfo = nanoLine.split("I")[1].trim().toCharArray();
+        if (cellInfo.length == 0) {
+            throw new IllegalArgumentException("There is no nonogram specified." +
+                    " If you do not want to initialize the cell informations use Nanoline(int, List<Integer)");
         }
+        return new CellLine(cellInfo);
     }
 
-    private void initializeCells() {
-        Arrays.setAll(cells, i -> new NonoCell());
+    private static int[] parseClues(String nanoLine) {
+        String[] clueInfos = nanoLine.split("I")[2].trim().split(" ");
+        int[] lineClueNumbers = new int[clueInfos.length];
+        for (int i = 0; i < clueInfos.length; i++) {
+            lineClueNumbers[i] = Integer.parseInt(clueInfos[i]);
+        }
+        return lineClueNumbers;
     }
 
-    /**
-     *
-     */
-    public NonoLine(String nanoLine) {
-        String[] splittedInfo = nanoLine.split("I");
-
-        char[] cellInfo = splittedInfo[1].trim().toCharArray();
-        String[] clueInfos = splittedInfo[2].trim().split(" ");
-
-        if (clueInfos.length == 0) {
-            throw new IllegalArgumentException("There is no clue given, but at least one is required." +
-                    " If the line should be empty, a single 0 as clue is required");
+    private void checkNonoLineRequirements(int[] lineClueNumbers) {
+        if (lineClueNumbers.length == 0) {
+            throw new IllegalArgumentException("lineClueNumbers is empty, but is required to hold at least one value." +
+                    " If the line should be empty, the List needs to be filled with a single 0");
         }
+    }
 
-        length = cellInfo.length;
-        if (length == 0) {
-            throw new IllegalArgumentException("There is no nonogram specified." +
-                    " If you do not want to initialize the cell informations use Nanoline(int, List<Integer)");
-        }
-        cells = new NonoCell[length];
-        for (int i = 0; i < cellInfo.length; i++) {
-            cells[i] = new NonoCell(cellInfo[i]);
-        }
+    private static int[] calculateClueLengths(int[] lineClueNumbers) {
+        return Arrays.stream(lineClueNumbers).filter(clueLength -> clueLength > 0).toArray();
+    }
 
-        lineClues = new ArrayList<>();
-        for (String clueInfo : clueInfos) {
-            lineClues.add(Clue.initializeClue(Integer.parseInt(clueInfo), length - 1));
+    /**
+     * @return the number of cells a clue can be moved from its lowest to its highest possible position
+     */
+    private int calculateSlack(int[] lineClueNumbers) {
+        int minimalSpan = lineClueNumbers.length - 1;
+        for (int lineClueNumber : lineClueNumbers) {
+            minimalSpan += lineClueNumber;
         }
-
-        updated = true;
-        finished = false;
+        return length - minimalSpan;
     }
 
     public int getLength() {
         return length;
     }
 
-    public NonoCell[] getCells() {
+    public CellLine getCells() {
         return cells;
     }
 
+    /**
+     * @return the free space of the line, a low slack means the line is highly constrained by its clues
+     */
+    public int getSlack() {
+        return slack;
+    }
+
+    public int getClueCount() {
+        return lineClues.size();
+    }
+
+    /**
+     * @return a view of the clue, its positions change while the line is solved
+     */
+    public Clue getClue(int clue) {
+        return lineClues.get(clue);
+    }
+
+    /**
+     * @param changeListener gets informed about every cell deduced by {@link #solveStep()}
+     */
+    public void setChangeListener(CellChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * @param exactSolver the solver used when the clue range logic makes no progress, {@link LineSolver#NONE} to disable it
+     */
+    public void setExactSolver(LineSolver exactSolver) {
+        this.exactSolver = exactSolver;
+    }
+
+    /**
+     * @param solutionCache the cache the complete deductions of the line are taken from instead of running the clue
+     *                      range logic, null to disable it
+     */
+    public void setSolutionCache(LineSolutionCache solutionCache) {
+        this.solutionCache = solutionCache;
+    }
+
+    /**
+     * @param solverListener gets the metrics of every solve step, {@link SolverListener#NONE} to measure nothing
+     */
+    public void setSolverListener(SolverListener solverListener) {
+        this.solverListener = solverListener;
+    }
+
     /**
      * does one rotation of solve actions if needed
      *
      * @return false if there is no need to call the solveActions method, else the return value from the solveActions method.
+     * @throws IllegalStateException if the clues can not be fulfilled anymore
      */
     public boolean solveStep() {
+        boolean stepWorked = solveStepDeferred();
+        if (hasContradiction()) {
+            throw new IllegalStateException("The line " + this + " contradicts its clues: " + conflictKind);
+        }
+        reportChanges();
+        return stepWorked;
+    }
+
+    /**
+     * does one rotation of solve actions like {@link #solveStep()}, but the change listener is not informed
+     * until {@link #reportChanges()} is called. This allows solving several lines at the same time.
+     * A contradiction stops the solve step without an exception, see {@link #hasContradiction()}.
+     *
+     * @return false if there is no need to call the solveActions method or the line contradicts its clues, else the
+     * return value from the solveActions method.
+     */
+    boolean solveStepDeferred() {
         if (finished || !updated) {
             return false;
         }
+        recordState();
         // new action run
         updated = false;
-        return solveActions();
+        cells.copyKnownTo(knownCells);
+        reportPending = true;
+        conflictKind = null;
+        return solveActions() && conflictKind == null;
+    }
+
+    /**
+     * @return true if the last solve step found out that the clues can not be fulfilled anymore
+     */
+    public boolean hasContradiction() {
+        return conflictKind != null;
+    }
+
+    /**
+     * @param horizontal true if the line is a row
+     * @param index      the index of the line in its direction
+     * @return the contradiction found by the last solve step or null
+     */
+    Contradiction getContradiction(boolean horizontal, int index) {
+        if (conflictKind == null) {
+            return null;
+        }
+        return new Contradiction(conflictKind, horizontal, index, conflictClue, conflictCell);
+    }
+
+    /**
+     * remembers the contradiction, the line is inconsistent afterwards and has to be restored by the trail
+     *
+     * @return false, so the solve actions can return it directly
+     */
+    private boolean contradiction(Contradiction.Kind kind, int clue, int cell) {
+        conflictKind = kind;
+        conflictClue = clue;
+        conflictCell = cell;
+        return false;
+    }
+
+    /**
+     * informs the change listener about every cell which got known during the last solve step
+     */
+    void reportChanges() {
+        if (!reportPending) {
+            return;
+        }
+        reportPending = false;
+        for (int w = 0; w < knownCells.length; w++) {
+            long changes = cells.getKnownWord(w) & ~knownCells[w];
+            while (changes != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(changes);
+                changeListener.cellChanged(i, cells.getStatus(i));
+                changes &= changes - 1;
+            }
+        }
     }
 
     /**
@@ -110,133 +300,306 @@ public class NonoLine {
      * @return true if the update logic did change the metrics
      */
     private boolean solveActions() {
-        updatePossiblePositions();
-        setClueFields();
-        setEmptyFields();
+        boolean measured = solverListener != SolverListener.NONE;
+        long start = measured ? System.nanoTime() : 0;
+        long positionsDone = start;
+        long clueFieldsDone = start;
+        long overlapDone = start;
+        if (solutionCache != null) {
+            // the clue ranges are not needed, the cache deduces everything the exact solver can
+            int result = solutionCache.solve(clueLengths, cells);
+            if (result == LineSolver.CONTRADICTION) {
+                return contradiction(Contradiction.Kind.NO_PLACEMENT, Contradiction.NONE, Contradiction.NONE);
+            }
+            updated = result == LineSolver.CHANGED;
+        } else {
+            if (!updatePossiblePositions()) {
+                return false;
+            }
+            positionsDone = measured ? System.nanoTime() : 0;
+            if (!setClueFields()) {
+                return false;
+            }
+            clueFieldsDone = measured ? System.nanoTime() : 0;
+            if (!setOverlapFields()) {
+                return false;
+            }
+            overlapDone = measured ? System.nanoTime() : 0;
+            if (!updated && !cells.isComplete()) {
+                int result = exactSolver.solve(clueLengths, cells);
+                if (result == LineSolver.CONTRADICTION) {
+                    return contradiction(Contradiction.Kind.NO_PLACEMENT, Contradiction.NONE, Contradiction.NONE);
+                }
+                // the clue ranges are not updated, they are narrowed by the next run through the deduced cells
+                updated = result == LineSolver.CHANGED;
+            }
+        }
         updateFinished();
+        if (measured) {
+            solverListener.lineSolved(countDeducedCells(), positionsDone - start, clueFieldsDone - positionsDone,
+                    overlapDone - clueFieldsDone, System.nanoTime() - overlapDone);
+        }
         return updated;
     }
 
+    /**
+     * @return the number of cells which got known since the solve step started
+     */
+    private int countDeducedCells() {
+        int deduced = 0;
+        for (int w = 0; w < knownCells.length; w++) {
+            deduced += Long.bitCount(cells.getKnownWord(w) & ~knownCells[w]);
+        }
+        return deduced;
+    }
+
     /**
      * updates the possible positions for each clue
+     *
+     * @return false if a clue has no possible position
      */
-    private void updatePossiblePositions() {
-        calculateLowestPositions();
-        calculateHighestPositions();
+    private boolean updatePossiblePositions() {
+        return calculateLowestPositions() && calculateHighestPositions();
     }
 
     /**
      * updates the lowest possible position for each clue
      */
-    private void calculateLowestPositions() {
-        Clue previousClue = null;
-        for (Clue clue : lineClues) {
-            clue.calculateLowestPosition(previousClue, cells);
-            previousClue = clue;
+    private boolean calculateLowestPositions() {
+        for (int i = 0; i < lineClues.size(); i++) {
+            if (!lineClues.calculateLowestPosition(i, cells)) {
+                return contradiction(Contradiction.Kind.CLUE_DOES_NOT_FIT, i, Contradiction.NONE);
+            }
         }
+        return true;
     }
 
     /**
      * update the highest possible position
      */
-    private void calculateHighestPositions() {
-        Clue previousClue = null;
+    private boolean calculateHighestPositions() {
         for (int i = lineClues.size() - 1; i >= 0; i--) {
-            Clue clue = lineClues.get(i);
-            clue.calculateHighestPosition(previousClue, cells);
-            previousClue = clue;
-        }
-    }
-
-    private void setClueFields() {
-        for (int i = 0; i < cells.length; i++) {
-            if (!cells[i].getStatus().isFilled()) {
-                continue;
+            if (!lineClues.calculateHighestPosition(i, cells)) {
+                return contradiction(Contradiction.Kind.CLUE_DOES_NOT_FIT, i, Contradiction.NONE);
             }
-            checkCellsForRequiredClues(i);
         }
-        checkCluesForRequiredCells();
+        return true;
     }
 
-    private void checkCellsForRequiredClues(int i) {
-        boolean contained = false;
-        Clue possibleClue = null;
-        for (Clue clue : lineClues) {
-            if (!clue.canContain(i)) {
+    /**
+     * @return false if a filled cell can not be covered by any clue
+     */
+    private boolean setClueFields() {
+        clueRangeIndex.rebuild(lineClues);
+        for (int i = 0; i < length; i++) {
+            if (!cells.isFilled(i)) {
                 continue;
             }
-            if (possibleClue != null) {
-                possibleClue = null;
-                break;
+            if (!checkCellsForRequiredClues(i)) {
+                return contradiction(Contradiction.Kind.CELL_OUTSIDE_CLUES, Contradiction.NONE, i);
             }
-            contained = true;
-            possibleClue = clue;
         }
-        if (!contained) {
-            throw new IllegalStateException("In this line there are filled pieces, which are not part of a clue:\n" +
-                    "Nonoline: " + this);
+        return true;
+    }
+
+    /**
+     * narrows the clue to the cell, if it is the only clue which can contain the filled cell
+     *
+     * @return false if no clue can contain the filled cell
+     */
+    private boolean checkCellsForRequiredClues(int i) {
+        int first = clueRangeIndex.getFirstClue(i);
+        if (first == ClueRangeIndex.NO_CLUE) {
+            return false;
         }
-        if (possibleClue == null) {
-            return;
+        if (first != clueRangeIndex.getLastClue(i)) {
+            return true;
         }
-        if (possibleClue.needsToContainCell(i)) {
+        int lowestStart = lineClues.getLowestStart(first);
+        int highestEnd = lineClues.getHighestEnd(first);
+        if (lineClues.needsToContainCell(first, i)) {
+            clueRangeIndex.narrowed(first, lowestStart, highestEnd, lineClues.getLowestStart(first),
+                    lineClues.getHighestEnd(first));
             updated = true;
         }
+        return true;
     }
 
-    private void checkCluesForRequiredCells() {
+    /**
+     * fills every cell a clue covers in all of its possible positions and empties every unknown cell no clue can reach,
+     * the bitsets of both are applied to the whole line at once
+     *
+     * @return false if a clue does not fit or a required cell is already empty
+     */
+    private boolean setOverlapFields() {
+        Arrays.fill(requiredCells, 0L);
+        Arrays.fill(reachableCells, 0L);
         for (int i = 0; i < lineClues.size(); i++) {
-            Clue clue = lineClues.get(i);
-            if (clue.fillRequiredCells(cells)) updated = true;
-            if (updated) {
-                lineClues.set(i, clue.checkPlaced());
+            if (!lineClues.markRequiredCells(i, requiredCells)) {
+                return contradiction(Contradiction.Kind.CLUE_DOES_NOT_FIT, i, Contradiction.NONE);
             }
-//           TODO 20240313 catch exception and append by informations
+            CellLine.setRange(reachableCells, lineClues.getLowestStart(i), lineClues.getHighestEnd(i));
+        }
+        int result = cells.tryApplyOverlap(requiredCells, reachableCells);
+        if (result == OverlapKernel.CONFLICT) {
+            return contradiction(Contradiction.Kind.REQUIRED_CELL_EMPTY, Contradiction.NONE, cells.firstConflict(requiredCells));
         }
+        if (result == OverlapKernel.CHANGED) {
+            updated = true;
+        }
+        if (updated) {
+            lineClues.checkPlaced();
+        }
+        return true;
+    }
+
+    private void updateFinished() {
+        finished = cells.isComplete();
     }
 
-    private void setEmptyFields() {
-        for (int i = 0; i < cells.length; i++) {
-            if (!cells[i].getStatus().isUnknown()) {
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return true if every cell is known and the filled cells form exactly the clues of the line
+     */
+    public boolean fulfillsClues() {
+        if (!cells.isComplete()) {
+            return false;
+        }
+        int clue = 0;
+        int run = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && cells.isFilled(i)) {
+                run++;
                 continue;
             }
-            boolean isEmpty = true;
-            for (Clue lineClue : lineClues) {
-                if (lineClue.canContain(i)) {
-                    isEmpty = false;
-                    break;
+            if (run > 0) {
+                if (clue >= clueLengths.length || clueLengths[clue] != run) {
+                    return false;
                 }
-            }
-            if (isEmpty) {
-                cells[i].setUnreachable();
-                updated = true;
+                clue++;
+                run = 0;
             }
         }
+        return clue == clueLengths.length;
     }
 
-    private void updateFinished() {
-        for (NonoCell field : cells) {
-            if (field.getStatus().isUnknown()) {
-                return;
+    /**
+     * @return true if the status of the cell changed
+     */
+    public boolean setCellStatus(int i, CellStatus status) {
+        if (status.isUnknown() || cells.getStatus(i) == status) {
+            return false;
+        }
+        recordState();
+        cells.setCellStatus(i, status);
+        updated = true;
+        return true;
+    }
+
+    /**
+     * marks the line to be solved again after a crossing line changed one of its cells in the grid
+     *
+     * @param save true to save the state of the line on the trail, it is saved with the changed cell then
+     */
+    void cellsChanged(boolean save) {
+        if (save) {
+            recordState();
+        }
+        updated = true;
+    }
+
+    /**
+     * @param trail the trail which saves the state of the line before it changes, null to disable saving
+     */
+    void setTrail(Trail trail) {
+        this.trail = trail;
+    }
+
+    int getTrailLevel() {
+        return trailLevel;
+    }
+
+    void setTrailLevel(int trailLevel) {
+        this.trailLevel = trailLevel;
+    }
+
+    private void recordState() {
+        if (trail != null) {
+            trail.save(this);
+        }
+    }
+
+    /**
+     * @return the lowest start and the highest end of every clue one after the other, a placed clue has exactly its
+     * length between them
+     */
+    public int[] getCluePositions() {
+        int[] positions = new int[2 * lineClues.size()];
+        for (int i = 0; i < lineClues.size(); i++) {
+            positions[2 * i] = lineClues.getLowestStart(i);
+            positions[2 * i + 1] = lineClues.getHighestEnd(i);
+        }
+        return positions;
+    }
+
+    /**
+     * sets the possible positions of the clues to the ones returned by {@link #getCluePositions()}, e.g. of a saved
+     * snapshot. Clues, which fit exactly between their positions, are placed.
+     *
+     * @throws IllegalArgumentException if the number of positions does not match the clues or a clue does not fit
+     *                                  between its positions inside of the line, the line is unchanged then
+     */
+    public void restoreCluePositions(int[] positions) {
+        if (positions.length != 2 * lineClues.size()) {
+            throw new IllegalArgumentException("The line has " + lineClues.size() + " clues, but " + positions.length / 2 +
+                    " positions are given");
+        }
+        for (int i = 0; i < lineClues.size(); i++) {
+            int lowestStart = positions[2 * i];
+            int highestEnd = positions[2 * i + 1];
+            // a clue of length 0 keeps its position, whatever is given
+            if (lineClues.getLength(i) > 0 && (lowestStart < 0 || highestEnd >= length
+                    || highestEnd - lowestStart + 1 < lineClues.getLength(i))) {
+                throw new IllegalArgumentException("The clue " + i + " of the length " + lineClues.getLength(i) +
+                        " does not fit between " + lowestStart + " and " + highestEnd + " in a line of " + length + " cells");
             }
         }
-        finished = true;
+        recordState();
+        for (int i = 0; i < lineClues.size(); i++) {
+            lineClues.restorePositions(i, positions[2 * i], positions[2 * i + 1]);
+        }
+        updated = true;
     }
 
+    State saveState() {
+        return new State(new CellLine(cells), new ClueRanges(lineClues), updated, finished, trailLevel);
+    }
 
-    public boolean isFinished() {
-        return finished;
+    void restoreState(State state) {
+        cells.restore(state.cells);
+        lineClues.restore(state.clues);
+        updated = state.updated;
+        finished = state.finished;
+        trailLevel = state.trailLevel;
+        reportPending = false;
+        conflictKind = null;
     }
 
-    public void setCellStatus(int i, CellStatus status) {
-        if (cells[i].setCellStatus(status)) updated = true;
+    /**
+     * the state of a line saved by the {@link Trail}
+     */
+    record State(CellLine cells, ClueRanges clues, boolean updated, boolean finished, int trailLevel) {
     }
 
     public String toString() {
         if (finished) {
-            return "I" + Arrays.stream(cells).map(Object::toString).collect(Collectors.joining()) + "I" + lineClues.stream().map(Objects::toString).collect(Collectors.joining());
+            return "I" + cells + "I" + lineClues;
         } else {
-            return "-" + Arrays.stream(cells).map(Object::toString).collect(Collectors.joining()) + "-" + lineClues.stream().map(Objects::toString).collect(Collectors.joining());
+            return "-" + cells + "-" + lineClues;
         }
     }
 }
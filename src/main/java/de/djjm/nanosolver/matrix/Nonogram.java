@@ -1,13 +1,55 @@
 package de.djjm.nanosolver.matrix;
 
+import de.djjm.nanosolver.matrix.cell.CellGrid;
 import de.djjm.nanosolver.matrix.cell.CellStatus;
-import de.djjm.nanosolver.matrix.cell.NonoCell;
+import de.djjm.nanosolver.matrix.solver.LineSolutionCache;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+/**
+ * The cells are stored once in a {@link CellGrid}. The rows and the columns are views of the grid, so a cell deduced by
+ * a line is known to its crossing line at once, which only has to be marked as dirty.
+ */
 public class Nonogram {
+    private final CellGrid grid;
     private final NonoLine[] horizontalLines;
     private final NonoLine[] verticalLines;
+    /**
+     * marks the lines that need to be solved again. Horizontal lines have the ids 0 to horizontalLines.length - 1 and
+     * vertical lines follow.
+     */
+    private final boolean[] queued;
+    /**
+     * the number of cells of each line deduced by its crossing lines since it was solved last
+     */
+    private final int[] changedCells;
+    private final int[] batch;
+    /**
+     * the priority of the line in the upper half and its id in the lower half, so sorting orders the batch
+     */
+    private final long[] batchKeys;
+    private LineSchedule lineSchedule;
+    private final Trail trail;
+    private ExecutorService executor;
+    private GridChangeListener gridChangeListener;
+    private SolverListener solverListener;
+    /**
+     * the number of lines solved and the time spent propagating during the current parallel solve step
+     */
+    private int parallelLinesSolved;
+    private long parallelSyncNanos;
+    /**
+     * the contradiction found since the last undo, null if the nonogram is consistent as far as known
+     */
+    private Contradiction contradiction;
 
     /**
      * Creates a Nonogram object
@@ -16,16 +58,62 @@ public class Nonogram {
      * @param verticalClues   The given clues as Array of the columns with each having an array of the clues from up to down
      */
     public Nonogram(Integer[][] horizontalClues, Integer[][] verticalClues) {
+        this(unbox(horizontalClues), unbox(verticalClues));
+    }
+
+    /**
+     * Creates a Nonogram object without boxing the clues
+     *
+     * @param horizontalClues The given clues as Array of the columns with each having an array of the clues from left to right
+     * @param verticalClues   The given clues as Array of the columns with each having an array of the clues from up to down
+     */
+    public Nonogram(int[][] horizontalClues, int[][] verticalClues) {
+        this(horizontalClues, verticalClues, new CellGrid(horizontalClues.length, verticalClues.length));
+    }
+
+    /**
+     * Creates a Nonogram object whose cells are stored in the given grid, e.g. in direct memory or a mapped file to
+     * solve a huge nonogram with a small heap. The cells already known in the grid are kept, so a nonogram can continue
+     * from a mapped file written before.
+     *
+     * @param horizontalClues The given clues as Array of the columns with each having an array of the clues from left to right
+     * @param verticalClues   The given clues as Array of the columns with each having an array of the clues from up to down
+     * @param grid            the store of the cells, one row for each horizontal clue and one column for each vertical clue
+     * @throws IllegalArgumentException if the size of the grid does not match the clues
+     */
+    public Nonogram(int[][] horizontalClues, int[][] verticalClues, CellGrid grid) {
         int horizontalLength = horizontalClues.length;
         int verticalLength = verticalClues.length;
+        if (grid.getHeight() != horizontalLength || grid.getWidth() != verticalLength) {
+            throw new IllegalArgumentException("The grid has the size " + grid.getHeight() + "x" + grid.getWidth() +
+                    ", but the clues " + horizontalLength + "x" + verticalLength);
+        }
+        this.grid = grid;
         horizontalLines = new NonoLine[horizontalLength];
         for (int i = 0; i < horizontalLines.length; i++) {
-            horizontalLines[i] = new NonoLine(verticalLength, Arrays.asList(horizontalClues[i]));
+            horizontalLines[i] = new NonoLine(grid.row(i), horizontalClues[i]);
         }
         verticalLines = new NonoLine[verticalLength];
         for (int i = 0; i < verticalLines.length; i++) {
-            verticalLines[i] = new NonoLine(horizontalLength, Arrays.asList(verticalClues[i]));
+            verticalLines[i] = new NonoLine(grid.column(i), verticalClues[i]);
+        }
+        queued = new boolean[horizontalLength + verticalLength];
+        changedCells = new int[horizontalLength + verticalLength];
+        batch = new int[horizontalLength + verticalLength];
+        batchKeys = new long[horizontalLength + verticalLength];
+        trail = new Trail();
+        lineSchedule = LineSchedule.INFORMATION_GAIN;
+        gridChangeListener = GridChangeListener.NONE;
+        solverListener = SolverListener.NONE;
+        initializePropagation();
+    }
+
+    private static int[][] unbox(Integer[][] clues) {
+        int[][] unboxed = new int[clues.length][];
+        for (int i = 0; i < clues.length; i++) {
+            unboxed[i] = Arrays.stream(clues[i]).mapToInt(Integer::intValue).toArray();
         }
+        return unboxed;
     }
 
     /**
@@ -36,72 +124,496 @@ public class Nonogram {
      * @param verticalLines  The given lines as Array from up to down
      */
     public Nonogram(NonoLine[] horizontalLines, NonoLine[] verticalLines) {
-        this.horizontalLines = horizontalLines;
-        this.verticalLines = verticalLines;
+        grid = new CellGrid(horizontalLines.length, verticalLines.length);
+        this.horizontalLines = new NonoLine[horizontalLines.length];
+        for (int i = 0; i < horizontalLines.length; i++) {
+            grid.row(i).restore(horizontalLines[i].getCells());
+            this.horizontalLines[i] = new NonoLine(horizontalLines[i], grid.row(i));
+        }
+        // the prefilled information of both directions has to be merged once
+        for (int i = 0; i < verticalLines.length; i++) {
+            grid.mergeColumn(i, verticalLines[i].getCells());
+        }
+        this.verticalLines = new NonoLine[verticalLines.length];
+        for (int i = 0; i < verticalLines.length; i++) {
+            this.verticalLines[i] = new NonoLine(verticalLines[i], grid.column(i));
+        }
+        queued = new boolean[horizontalLines.length + verticalLines.length];
+        changedCells = new int[horizontalLines.length + verticalLines.length];
+        batch = new int[horizontalLines.length + verticalLines.length];
+        batchKeys = new long[horizontalLines.length + verticalLines.length];
+        trail = new Trail();
+        lineSchedule = LineSchedule.INFORMATION_GAIN;
+        gridChangeListener = GridChangeListener.NONE;
+        solverListener = SolverListener.NONE;
+        initializePropagation();
+    }
+
+    /**
+     * Creates a copy of the nonogram with the status of its cells. The copy does not share any state with the
+     * original, so both can be solved independently, e.g. by different threads.
+     */
+    public Nonogram(Nonogram other) {
+        grid = new CellGrid(other.grid);
+        horizontalLines = new NonoLine[other.horizontalLines.length];
+        for (int i = 0; i < horizontalLines.length; i++) {
+            horizontalLines[i] = new NonoLine(other.horizontalLines[i], grid.row(i));
+        }
+        verticalLines = new NonoLine[other.verticalLines.length];
+        for (int i = 0; i < verticalLines.length; i++) {
+            verticalLines[i] = new NonoLine(other.verticalLines[i], grid.column(i));
+        }
+        queued = new boolean[horizontalLines.length + verticalLines.length];
+        changedCells = new int[horizontalLines.length + verticalLines.length];
+        batch = new int[horizontalLines.length + verticalLines.length];
+        batchKeys = new long[horizontalLines.length + verticalLines.length];
+        trail = new Trail();
+        lineSchedule = other.lineSchedule;
+        gridChangeListener = GridChangeListener.NONE;
+        solverListener = SolverListener.NONE;
+        initializePropagation();
     }
 
     /**
-     * do one solve iteration for the nanogram
+     * connects every line with its crossing lines and the trail and marks all lines as dirty
+     */
+    private void initializePropagation() {
+        for (int i = 0; i < horizontalLines.length; i++) {
+            int row = i;
+            horizontalLines[i].setChangeListener((column, status) -> propagate(column, row, status, horizontalLines.length));
+            horizontalLines[i].setTrail(trail);
+        }
+        for (int i = 0; i < verticalLines.length; i++) {
+            int column = i;
+            verticalLines[i].setChangeListener((row, status) -> propagate(row, column, status, 0));
+            verticalLines[i].setTrail(trail);
+        }
+        for (int id = 0; id < queued.length; id++) {
+            enqueue(id);
+        }
+    }
+
+    /**
+     * marks the crossing line of a cell deduced by a line as dirty, the cell is already in the grid. A row changed by a
+     * column is saved on the trail, so {@link #getRowsSavedSince(int)} holds every row whose cells changed.
+     *
+     * @param crossingIndex the index of the crossing line in its direction
+     * @param cellIndex     the index of the cell inside the crossing line
+     * @param idOffset      the id of the first line in the direction of the crossing line
+     */
+    private void propagate(int crossingIndex, int cellIndex, CellStatus status, int idOffset) {
+        int id = idOffset + crossingIndex;
+        boolean deducedByRow = idOffset != 0;
+        getLine(id).cellsChanged(!deducedByRow);
+        changedCells[id]++;
+        enqueue(id);
+        if (deducedByRow) {
+            gridChangeListener.cellDeduced(cellIndex, crossingIndex, status, true);
+        } else {
+            gridChangeListener.cellDeduced(crossingIndex, cellIndex, status, false);
+        }
+    }
+
+    private void enqueue(int id) {
+        queued[id] = true;
+    }
+
+    /**
+     * writes the ids of the dirty lines into the batch in the order of the schedule
+     *
+     * @param fromId the id of the first line to take
+     * @param toId   the id after the last line to take
+     * @return the number of lines in the batch
+     */
+    private int takeDirtyLines(int fromId, int toId) {
+        int batchSize = 0;
+        for (int id = fromId; id < toId; id++) {
+            if (queued[id]) {
+                long priority = lineSchedule.priority(getLine(id), changedCells[id]);
+                batchKeys[batchSize++] = priority << 32 | id;
+            }
+        }
+        Arrays.sort(batchKeys, 0, batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch[i] = (int) batchKeys[i];
+        }
+        return batchSize;
+    }
+
+    public int getHeight() {
+        return horizontalLines.length;
+    }
+
+    public int getWidth() {
+        return verticalLines.length;
+    }
+
+    public NonoLine getHorizontalLine(int row) {
+        return horizontalLines[row];
+    }
+
+    public NonoLine getVerticalLine(int column) {
+        return verticalLines[column];
+    }
+
+    public CellStatus getCellStatus(int row, int column) {
+        return grid.getStatus(row, column);
+    }
+
+    /**
+     * sets the status of a cell in the grid and marks its row and column as dirty
+     *
+     * @throws IllegalStateException if the cell already has the opposite status
+     */
+    public void setCellStatus(int row, int column, CellStatus status) {
+        if (horizontalLines[row].setCellStatus(column, status)) {
+            changedCells[row]++;
+            enqueue(row);
+            verticalLines[column].cellsChanged(false);
+            changedCells[horizontalLines.length + column]++;
+            enqueue(horizontalLines.length + column);
+        }
+    }
+
+    /**
+     * @param gridChangeListener gets informed about every cell deduced by a line, but not about cells set by
+     *                           {@link #setCellStatus(int, int, CellStatus)}
+     */
+    public void setGridChangeListener(GridChangeListener gridChangeListener) {
+        this.gridChangeListener = gridChangeListener;
+    }
+
+    /**
+     * starts a new decision level, every change from now on can be undone with {@link #undo(int)}
+     *
+     * @return the mark of the new level
+     */
+    public int mark() {
+        return trail.mark();
+    }
+
+    /**
+     * @return the rows the trail saved since the given mark was created, only their cells can have changed since then
+     */
+    public int[] getRowsSavedSince(int mark) {
+        int[] rows = new int[horizontalLines.length];
+        int count = 0;
+        for (int row = 0; row < horizontalLines.length; row++) {
+            // a line saved on a level keeps it as its trail level until the level is undone or committed
+            if (horizontalLines[row].getTrailLevel() >= mark) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * undoes every change since the given mark was created, including the changes of later marks
+     */
+    public void undo(int mark) {
+        // a row and a column share their crossing cell, the one saved first holds it as it was before the mark
+        trail.undo(mark);
+        contradiction = null;
+        // marks are created at a fixpoint, so no line is dirty at that state
+        Arrays.fill(queued, false);
+        Arrays.fill(changedCells, 0);
+    }
+
+    public SolverListener getSolverListener() {
+        return solverListener;
+    }
+
+    /**
+     * @param solverListener gets the metrics of the nonogram and all of its lines, {@link SolverListener#NONE} to
+     *                       measure nothing
+     */
+    public void setSolverListener(SolverListener solverListener) {
+        this.solverListener = solverListener;
+        for (NonoLine line : horizontalLines) {
+            line.setSolverListener(solverListener);
+        }
+        for (NonoLine line : verticalLines) {
+            line.setSolverListener(solverListener);
+        }
+    }
+
+    /**
+     * keeps every change since the given mark was created, they can only be undone by undoing an older mark
+     */
+    public void commit(int mark) {
+        trail.commit(mark);
+    }
+
+    private NonoLine getLine(int id) {
+        if (id < horizontalLines.length) {
+            return horizontalLines[id];
+        }
+        return verticalLines[id - horizontalLines.length];
+    }
+
+    /**
+     * @param lineSchedule the order the dirty lines of a solve step are solved in, {@link LineSchedule#INFORMATION_GAIN} by
+     *                     default
+     */
+    public void setLineSchedule(LineSchedule lineSchedule) {
+        this.lineSchedule = lineSchedule;
+    }
+
+    /**
+     * @param executor the executor used to solve the lines of one direction in parallel, null to solve sequentially
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param solutionCache the cache every line takes its deductions from, null to use the clue range logic
+     */
+    public void setSolutionCache(LineSolutionCache solutionCache) {
+        for (NonoLine line : horizontalLines) {
+            line.setSolutionCache(solutionCache);
+        }
+        for (NonoLine line : verticalLines) {
+            line.setSolutionCache(solutionCache);
+        }
+    }
+
+    /**
+     * do one solve iteration for the nanogram, solving every line which got dirty since the last iteration
      *
      * @return true if something changed else false
+     * @throws IllegalStateException if the nonogram contradicts its clues
      */
     public boolean solveStep() {
-        boolean horizontalUpdate = solveStep(horizontalLines);
-        boolean verticalUpdate = solveStep(verticalLines);
-        if (horizontalUpdate || verticalUpdate) {
-            // if changes in the solveStep where made synchronize both arrays
-            syncMatrix();
-            return true;
+        boolean changed = trySolveStep();
+        if (contradiction != null) {
+            throw new IllegalStateException("The nonogram contradicts its clues: " + contradiction);
+        }
+        return changed;
+    }
+
+    /**
+     * does one solve iteration like {@link #solveStep()}, but a contradiction stops the iteration and is kept by
+     * {@link #getContradiction()} instead of being thrown. The nonogram stays inconsistent until it is undone.
+     *
+     * @return true if something changed and there is no contradiction
+     */
+    public boolean trySolveStep() {
+        if (contradiction != null) {
+            return false;
+        }
+        if (executor != null) {
+            return solveStepParallel();
+        }
+        int batchSize = takeDirtyLines(0, queued.length);
+        boolean measured = solverListener != SolverListener.NONE;
+        long syncNanos = 0;
+        int linesChanged = 0;
+        for (int i = 0; i < batchSize; i++) {
+            int id = batch[i];
+            // lines stay queued until they are solved, so changes from earlier lines of the batch are included
+            queued[id] = false;
+            changedCells[id] = 0;
+            NonoLine line = getLine(id);
+            boolean lineChanged = line.solveStepDeferred();
+            // only the line itself can find a contradiction, reporting its changes just queues the crossing lines
+            if (line.hasContradiction()) {
+                contradiction = getLineContradiction(id);
+                solverListener.contradictionFound(contradiction);
+                solverListener.iterationFinished(i + 1, linesChanged, syncNanos);
+                return false;
+            }
+            long syncStart = measured ? System.nanoTime() : 0;
+            line.reportChanges();
+            if (measured) {
+                syncNanos += System.nanoTime() - syncStart;
+            }
+            if (lineChanged) {
+                linesChanged++;
+                enqueue(id);
+            }
         }
-        return false;
+        solverListener.iterationFinished(batchSize, linesChanged, syncNanos);
+        return linesChanged > 0;
     }
 
     /**
-     * do one solve iteration for a specific direction (horizontal or vertical)
+     * solves all dirty horizontal lines in parallel and afterwards all dirty vertical lines.
+     * Lines of one direction do not share any cells, only the columns of one block share the words they are stored in
+     * and are solved by the same task. The deduced cells are propagated after all lines of the direction are solved in
+     * the order of the lines, so the result does not depend on the scheduling of the executor.
      *
-     * @param lines the lines to be solved
      * @return true if something changed else false
      */
-    private boolean solveStep(NonoLine[] lines) {
-        boolean stepworked = false;
-        for (NonoLine line : lines) {
-            if (line.isFinished()) {
+    private boolean solveStepParallel() {
+        parallelLinesSolved = 0;
+        parallelSyncNanos = 0;
+        int linesChanged = solveDirectionParallel(0, horizontalLines.length);
+        if (contradiction == null) {
+            linesChanged += solveDirectionParallel(horizontalLines.length, queued.length);
+        }
+        if (contradiction != null) {
+            solverListener.contradictionFound(contradiction);
+        }
+        solverListener.iterationFinished(parallelLinesSolved, linesChanged, parallelSyncNanos);
+        return linesChanged > 0 && contradiction == null;
+    }
+
+    /**
+     * @param fromId the id of the first line of the direction
+     * @param toId   the id after the last line of the direction
+     * @return the number of lines which changed until a contradiction was found
+     */
+    private int solveDirectionParallel(int fromId, int toId) {
+        int batchSize = takeDirtyLines(fromId, toId);
+        boolean[] lineChanged = new boolean[batchSize];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        // the columns of one block share the words of the grid, so one task solves them one after the other
+        Map<Integer, List<Integer>> blocks = new HashMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            int id = batch[i];
+            queued[id] = false;
+            changedCells[id] = 0;
+            if (id < horizontalLines.length) {
+                tasks.add(solveTask(List.of(i), lineChanged));
                 continue;
             }
-            if (line.solveStep()) {
-                stepworked = true;
+            List<Integer> block = blocks.computeIfAbsent(CellGrid.block(id - horizontalLines.length), b -> new ArrayList<>());
+            if (block.isEmpty()) {
+                tasks.add(solveTask(block, lineChanged));
+            }
+            block.add(i);
+        }
+        parallelLinesSolved += batchSize;
+        for (Future<Void> result : invokeAll(tasks)) {
+            getResult(result);
+        }
+        for (int i = 0; i < batchSize; i++) {
+            int id = batch[i];
+            if (getLine(id).hasContradiction()) {
+                // the cells deduced by the batch are in the grid, they are undone with the lines which deduced them
+                contradiction = getLineContradiction(id);
+                return 0;
+            }
+        }
+        boolean measured = solverListener != SolverListener.NONE;
+        int linesChanged = 0;
+        for (int i = 0; i < batchSize; i++) {
+            int id = batch[i];
+            long syncStart = measured ? System.nanoTime() : 0;
+            getLine(id).reportChanges();
+            if (measured) {
+                parallelSyncNanos += System.nanoTime() - syncStart;
+            }
+            if (lineChanged[i]) {
+                linesChanged++;
+                enqueue(id);
             }
         }
-        return stepworked;
+        return linesChanged;
     }
 
     /**
-     * synchronises the vertical and horizontal information
+     * @param positions   the positions of the lines in the batch, which are solved one after the other
+     * @param lineChanged gets the result of the solve step of every line at its position
      */
-    private void syncMatrix() {
-        //sync horizontal into vertical
-        syncDirection(horizontalLines, verticalLines);
-        //sync vertical into horizontal
-        syncDirection(verticalLines, horizontalLines);
+    private Callable<Void> solveTask(List<Integer> positions, boolean[] lineChanged) {
+        return () -> {
+            for (int i : positions) {
+                lineChanged[i] = getLine(batch[i]).solveStepDeferred();
+            }
+            return null;
+        };
+    }
+
+    private Contradiction getLineContradiction(int id) {
+        if (id < horizontalLines.length) {
+            return getLine(id).getContradiction(true, id);
+        }
+        return getLine(id).getContradiction(false, id - horizontalLines.length);
+    }
+
+    /**
+     * @return the contradiction found by {@link #trySolveStep()} since the last undo, null if none was found
+     */
+    public Contradiction getContradiction() {
+        return contradiction;
+    }
+
+    private List<Future<Void>> invokeAll(List<Callable<Void>> tasks) {
+        try {
+            return executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving the lines in parallel", e);
+        }
     }
 
     /**
-     * synchronises one Matrix to another
+     * @throws RuntimeException the exception thrown by a line, which is not a contradiction
+     */
+    private static void getResult(Future<Void> result) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving the lines in parallel", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * does solve iterations until no line can deduce anything new
+     *
+     * @return true if the status of every cell is known
+     */
+    public boolean solve() {
+        while (solveStep()) ;
+        return isSolved();
+    }
+
+    /**
+     * does solve iterations like {@link #solve()}, but stops at the first contradiction, which is kept by
+     * {@link #getContradiction()} instead of being thrown
      *
-     * @param source the Matrix being used as source
-     * @param target the Matrix which is synchronized
-     */
-    private void syncDirection(NonoLine[] source, NonoLine[] target) {
-        for (int i = 0; i < source.length; i++) {
-            NonoCell[] sourceField = source[i].getCells();
-            for (int j = 0; j < target.length; j++) {
-                CellStatus sourceStatus = sourceField[j].getStatus();
-                CellStatus targetStatus = target[j].getCells()[i].getStatus();
-                if (!(sourceStatus.isUnknown() || targetStatus.equals(sourceStatus))) {
-                    target[j].setCellStatus(i, sourceStatus);
-                }
+     * @return true if the status of every cell is known and there is no contradiction
+     */
+    public boolean trySolve() {
+        while (trySolveStep()) ;
+        return contradiction == null && isSolved();
+    }
+
+    /**
+     * @return true if the status of every cell is known
+     */
+    public boolean isSolved() {
+        for (NonoLine line : horizontalLines) {
+            if (!line.getCells().isComplete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every cell is known and every line fulfills its clues
+     */
+    public boolean fulfillsClues() {
+        for (NonoLine line : horizontalLines) {
+            if (!line.fulfillsClues()) {
+                return false;
+            }
+        }
+        for (int column = 0; column < verticalLines.length; column++) {
+            if (!verticalLines[column].fulfillsClues()) {
+                return false;
             }
         }
+        return true;
     }
 
     @Override
@@ -0,0 +1,40 @@
+package de.djjm.nanosolver.matrix;
+
+/**
+ * Gets informed about the work of the solver, e.g. to collect metrics. The times are only measured if a listener is set,
+ * so solving without one has no overhead. The methods can be called by several threads at the same time when the
+ * lines are solved in parallel.
+ */
+public interface SolverListener {
+    SolverListener NONE = new SolverListener() {
+    };
+
+    /**
+     * called after every solve step of a line which was needed
+     *
+     * @param cellsDeduced      the number of cells which got known
+     * @param positionNanos     the time spent updating the possible positions of the clues
+     * @param clueFieldNanos    the time spent narrowing the clues by the filled cells
+     * @param overlapNanos      the time spent setting the cells required by the clues and the cells no clue can reach
+     * @param exactSolverNanos  the time spent in the exact solver or the solution cache
+     */
+    default void lineSolved(int cellsDeduced, long positionNanos, long clueFieldNanos, long overlapNanos,
+                            long exactSolverNanos) {
+    }
+
+    /**
+     * called after every solve step of a nonogram
+     *
+     * @param linesSolved  the number of dirty lines which were solved
+     * @param linesChanged the number of lines which deduced at least one cell
+     * @param syncNanos    the time spent propagating the deduced cells to the crossing lines
+     */
+    default void iterationFinished(int linesSolved, int linesChanged, long syncNanos) {
+    }
+
+    /**
+     * called when a nonogram finds out that the clues of a line can not be fulfilled anymore
+     */
+    default void contradictionFound(Contradiction contradiction) {
+    }
+}
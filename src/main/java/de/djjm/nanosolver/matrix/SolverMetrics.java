@@ -0,0 +1,108 @@
+package de.djjm.nanosolver.matrix;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums up everything reported to the {@link SolverListener}. One instance can be shared by several nonograms and
+ * threads, e.g. for a whole batch run.
+ */
+public class SolverMetrics implements SolverListener {
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder linesSolved = new LongAdder();
+    private final LongAdder linesChanged = new LongAdder();
+    private final LongAdder lineSolverCalls = new LongAdder();
+    private final LongAdder cellsDeduced = new LongAdder();
+    private final LongAdder positionNanos = new LongAdder();
+    private final LongAdder clueFieldNanos = new LongAdder();
+    private final LongAdder overlapNanos = new LongAdder();
+    private final LongAdder exactSolverNanos = new LongAdder();
+    private final LongAdder syncNanos = new LongAdder();
+    private final LongAdder contradictions = new LongAdder();
+
+    @Override
+    public void lineSolved(int cellsDeduced, long positionNanos, long clueFieldNanos, long overlapNanos,
+                           long exactSolverNanos) {
+        lineSolverCalls.increment();
+        this.cellsDeduced.add(cellsDeduced);
+        this.positionNanos.add(positionNanos);
+        this.clueFieldNanos.add(clueFieldNanos);
+        this.overlapNanos.add(overlapNanos);
+        this.exactSolverNanos.add(exactSolverNanos);
+    }
+
+    @Override
+    public void iterationFinished(int linesSolved, int linesChanged, long syncNanos) {
+        iterations.increment();
+        this.linesSolved.add(linesSolved);
+        this.linesChanged.add(linesChanged);
+        this.syncNanos.add(syncNanos);
+    }
+
+    @Override
+    public void contradictionFound(Contradiction contradiction) {
+        contradictions.increment();
+    }
+
+    public long getIterations() {
+        return iterations.sum();
+    }
+
+    public long getLinesSolved() {
+        return linesSolved.sum();
+    }
+
+    public long getLinesChanged() {
+        return linesChanged.sum();
+    }
+
+    public long getLineSolverCalls() {
+        return lineSolverCalls.sum();
+    }
+
+    public long getCellsDeduced() {
+        return cellsDeduced.sum();
+    }
+
+    public long getPositionNanos() {
+        return positionNanos.sum();
+    }
+
+    public long getClueFieldNanos() {
+        return clueFieldNanos.sum();
+    }
+
+    public long getOverlapNanos() {
+        return overlapNanos.sum();
+    }
+
+    public long getExactSolverNanos() {
+        return exactSolverNanos.sum();
+    }
+
+    public long getSyncNanos() {
+        return syncNanos.sum();
+    }
+
+    public long getContradictions() {
+        return contradictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        long calls = getLineSolverCalls();
+        return "SolverMetrics{" +
+                "iterations=" + getIterations() +
+                ", linesSolved=" + getLinesSolved() +
+                ", linesChanged=" + getLinesChanged() +
+                ", cellsDeduced=" + getCellsDeduced() +
+                String.format(Locale.ROOT, ", cellsPerLineSolve=%.2f", calls == 0 ? 0.0 : (double) getCellsDeduced() / calls) +
+                String.format(Locale.ROOT, ", positions=%.3f ms", getPositionNanos() / 1e6) +
+                String.format(Locale.ROOT, ", clueFields=%.3f ms", getClueFieldNanos() / 1e6) +
+                String.format(Locale.ROOT, ", overlap=%.3f ms", getOverlapNanos() / 1e6) +
+                String.format(Locale.ROOT, ", exactSolver=%.3f ms", getExactSolverNanos() / 1e6) +
+                String.format(Locale.ROOT, ", sync=%.3f ms", getSyncNanos() / 1e6) +
+                ", contradictions=" + getContradictions() +
+                "}";
+    }
+}
@@ -0,0 +1,88 @@
+package de.djjm.nanosolver.matrix;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Remembers the state of every line before its first change on a decision level, so all changes made since a
+ * decision can be undone without copying the whole nonogram.
+ */
+public class Trail {
+    private final Deque<Entry> entries;
+    private int level;
+
+    public Trail() {
+        entries = new ArrayDeque<>();
+        level = 0;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * starts a new decision level
+     *
+     * @return the new level, which is needed to undo the changes
+     */
+    int mark() {
+        return ++level;
+    }
+
+    /**
+     * saves the state of the line, if it was not already saved on the current level
+     */
+    synchronized void save(NonoLine line) {
+        if (line.getTrailLevel() >= level) {
+            return;
+        }
+        entries.push(new Entry(level, line, line.saveState()));
+        line.setTrailLevel(level);
+    }
+
+    /**
+     * restores the state of every line to the one before the given level was marked
+     */
+    void undo(int mark) {
+        while (!entries.isEmpty() && entries.peek().level >= mark) {
+            Entry entry = entries.pop();
+            entry.line.restoreState(entry.state);
+        }
+        level = mark - 1;
+    }
+
+    /**
+     * keeps every change since the given level was marked, the changes belong to the level before it from now on
+     */
+    void commit(int mark) {
+        List<Entry> committed = new ArrayList<>();
+        while (!entries.isEmpty() && entries.peek().level >= mark) {
+            committed.add(entries.pop());
+        }
+        int outerLevel = mark - 1;
+        Set<NonoLine> savedOnOuterLevel = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Entry entry : entries) {
+            if (entry.level != outerLevel) {
+                break;
+            }
+            savedOnOuterLevel.add(entry.line);
+        }
+        // the oldest state of a line is the one to restore when the outer level is undone
+        for (int i = committed.size() - 1; i >= 0; i--) {
+            Entry entry = committed.get(i);
+            if (outerLevel > 0 && savedOnOuterLevel.add(entry.line)) {
+                entries.push(new Entry(outerLevel, entry.line, entry.state));
+            }
+            entry.line.setTrailLevel(outerLevel);
+        }
+        level = outerLevel;
+    }
+
+    private record Entry(int level, NonoLine line, NonoLine.State state) {
+    }
+}
@@ -0,0 +1,227 @@
+package de.djjm.nanosolver.matrix.cell;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The single store of the cells of a nonogram. Every row stores its filled words followed by its empty words in the
+ * layout of a {@link CellLine}, the rows follow each other in one buffer. A row is a view of its words, a column is a
+ * view of one bit of the words of every row, so a cell written through a row is seen by its column at once and the
+ * other way round.
+ * <p>
+ * The words lie on the heap, in direct memory or in a memory-mapped file, so a huge grid needs 2 bits per cell outside
+ * of the heap. A mapped file starts with a header holding the magic bytes {@code NONG}, the version and the size of
+ * the grid, so it can be opened again to continue with the stored cells. The header and the words are stored
+ * big-endian, so the file can be opened on every platform.
+ * <p>
+ * Rows never share a word, so they can be changed by different threads at the same time. Columns share the words of
+ * every row with the other columns of their block of 64 columns, see {@link #block(int)}.
+ */
+public class CellGrid implements Closeable {
+    private static final int MAGIC = 'N' << 24 | 'O' << 16 | 'N' << 8 | 'G';
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 16;
+    private static final ByteOrder FILE_ORDER = ByteOrder.BIG_ENDIAN;
+
+    private final int height;
+    private final int width;
+    private final int rowWords;
+    private final LongBuffer words;
+    /**
+     * the mapped memory and the file of a mapped grid, null otherwise
+     */
+    private final MappedByteBuffer mapped;
+    private final FileChannel channel;
+    /**
+     * the views of the rows and columns, created on first use
+     */
+    private final CellLine[] rows;
+    private final CellLine[] columns;
+
+    /**
+     * creates a grid of unknown cells on the heap
+     *
+     * @throws IllegalArgumentException if the words of the grid do not fit into an array
+     */
+    public CellGrid(int height, int width) {
+        this(height, width, LongBuffer.wrap(new long[wordCount(height, width)]), null, null);
+    }
+
+    /**
+     * Creates a copy of the grid with the status of its cells on the heap
+     */
+    public CellGrid(CellGrid other) {
+        this(other.height, other.width);
+        words.put(0, other.words, 0, other.words.capacity());
+    }
+
+    private CellGrid(int height, int width, LongBuffer words, MappedByteBuffer mapped, FileChannel channel) {
+        this.height = height;
+        this.width = width;
+        rowWords = CellLine.wordCount(width);
+        this.words = words;
+        this.mapped = mapped;
+        this.channel = channel;
+        rows = new CellLine[height];
+        columns = new CellLine[width];
+    }
+
+    /**
+     * @return a grid of unknown cells in direct memory
+     * @throws IllegalArgumentException if the words of the grid do not fit into one buffer
+     */
+    public static CellGrid allocateDirect(int height, int width) {
+        LongBuffer words = ByteBuffer.allocateDirect(wordCount(height, width) * Long.BYTES)
+                .order(ByteOrder.nativeOrder()).asLongBuffer();
+        return new CellGrid(height, width, words, null, null);
+    }
+
+    /**
+     * maps the file into memory, a new file is created with unknown cells. The cells written to the grid are written
+     * to the file by {@link #force()} and {@link #close()}.
+     *
+     * @throws IllegalArgumentException if the size is invalid, the file is not created then, or if the existing file
+     *                                  does not hold a grid of the size
+     */
+    public static CellGrid map(Path file, int height, int width) throws IOException {
+        long size = HEADER_BYTES + (long) wordCount(height, width) * Long.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A grid of " + height + "x" + width + " needs " + size +
+                    " bytes, but at most " + Integer.MAX_VALUE + " can be mapped");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            if (!created && channel.size() != size) {
+                throw new IllegalArgumentException("The file " + file + " does not hold a grid of " + height + "x" + width);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.order(FILE_ORDER);
+            if (created) {
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putInt(8, height);
+                mapped.putInt(12, width);
+            } else if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || mapped.getInt(8) != height
+                    || mapped.getInt(12) != width) {
+                throw new IllegalArgumentException("The file " + file + " does not hold a grid of " + height + "x" + width);
+            }
+            LongBuffer words = mapped.slice(HEADER_BYTES, (int) size - HEADER_BYTES).order(FILE_ORDER).asLongBuffer();
+            return new CellGrid(height, width, words, mapped, channel);
+        } catch (IOException | RuntimeException e) {
+            // the grid owns the channel only once it is created
+            try {
+                channel.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of words of a grid of the size
+     * @throws IllegalArgumentException if the size is invalid or the words do not fit into one buffer
+     */
+    private static int wordCount(int height, int width) {
+        if (height < 0 || width < 0) {
+            throw new IllegalArgumentException("The size of a grid can not be negative, but it is " + height + "x" + width);
+        }
+        long count = 2L * CellLine.wordCount(width) * height;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A grid of " + height + "x" + width + " needs " + count +
+                    " words, but at most " + (Integer.MAX_VALUE - 8) + " can be stored");
+        }
+        return (int) count;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the block of the column, the columns of one block share their words
+     */
+    public static int block(int column) {
+        return CellLine.wordIndex(column);
+    }
+
+    /**
+     * @return the view of the row, every change of the view is a change of the grid
+     */
+    public CellLine row(int row) {
+        CellLine view = rows[row];
+        if (view == null) {
+            view = new CellLine(width, words, 2 * row * rowWords, rowWords, 0, 0);
+            rows[row] = view;
+        }
+        return view;
+    }
+
+    /**
+     * @return the view of the column, every change of the view is a change of the grid
+     */
+    public CellLine column(int column) {
+        CellLine view = columns[column];
+        if (view == null) {
+            view = new CellLine(height, words, CellLine.wordIndex(column), rowWords, 2 * rowWords, column & 63);
+            columns[column] = view;
+        }
+        return view;
+    }
+
+    public CellStatus getStatus(int row, int column) {
+        long bit = 1L << column;
+        int index = 2 * row * rowWords + CellLine.wordIndex(column);
+        if ((words.get(index) & bit) != 0) {
+            return CellStatus.FILLED;
+        }
+        if ((words.get(index + rowWords) & bit) != 0) {
+            return CellStatus.EMPTY;
+        }
+        return CellStatus.UNKNOWN;
+    }
+
+    /**
+     * sets every cell known in the line in the column, e.g. to merge prefilled columns into the grid
+     *
+     * @throws IllegalStateException if a cell is known with the opposite status in the grid
+     */
+    public void mergeColumn(int column, CellLine cells) {
+        long[] filled = new long[cells.getWordCount()];
+        long[] empty = new long[cells.getWordCount()];
+        for (int w = 0; w < filled.length; w++) {
+            filled[w] = cells.getFilledWord(w);
+            empty[w] = cells.getEmptyWord(w);
+        }
+        column(column).setKnown(filled, empty);
+    }
+
+    /**
+     * writes the changes of a mapped grid to its file
+     */
+    public void force() {
+        if (mapped != null) {
+            mapped.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package de.djjm.nanosolver.matrix.cell;
+
+import java.nio.LongBuffer;
+
+/**
+ * Stores the cells of one line as two bitsets, one for the cells known to be filled and one for the cells known
+ * to be empty. A cell which is set in neither of them is unknown.
+ * <p>
+ * A line either owns its bitsets or is a view of a row or a column of a {@link CellGrid}, which reads and writes the
+ * words of the grid directly. The cells of an owned line and of a row lie one after the other in the bits of their
+ * words. The cells of a column lie in the same bit of the words of every row, a stride of words apart, so the words of
+ * a column are put together from the rows when they are read as a whole.
+ * <p>
+ * The words of a grid can lie outside of the heap, see {@link CellGrid#allocateDirect(int, int)}. Words on the heap
+ * are read from their array directly.
+ */
+public class CellLine {
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+    private static final OverlapKernel OVERLAP_KERNEL = OverlapKernel.best();
+
+    private final int length;
+    private final int wordCount;
+    /**
+     * the words of the cells, owned by the line or shared with every other line of a grid
+     */
+    private final LongBuffer buffer;
+    /**
+     * the array of the buffer if its words lie on the heap, null otherwise
+     */
+    private final long[] words;
+    /**
+     * the index of the filled word of the first cell
+     */
+    private final int offset;
+    /**
+     * the distance from the filled word of a cell to its empty word
+     */
+    private final int emptyOffset;
+    /**
+     * the distance between the words of two neighbouring cells of a column, 0 if the cells lie one after the other
+     */
+    private final int stride;
+    /**
+     * the bit of a column in the words of the rows
+     */
+    private final int bit;
+
+    public CellLine(int length) {
+        this(length, LongBuffer.wrap(new long[2 * wordCount(length)]), 0, wordCount(length), 0, 0);
+    }
+
+    /**
+     * creates a view of the given words, see {@link CellGrid#row(int)} and {@link CellGrid#column(int)}
+     */
+    CellLine(int length, LongBuffer buffer, int offset, int emptyOffset, int stride, int bit) {
+        this.length = length;
+        wordCount = wordCount(length);
+        this.buffer = buffer;
+        words = buffer.hasArray() && buffer.arrayOffset() == 0 ? buffer.array() : null;
+        this.offset = offset;
+        this.emptyOffset = emptyOffset;
+        this.stride = stride;
+        this.bit = bit;
+    }
+
+    /**
+     * Creates a copy of the given line, which owns its bitsets
+     */
+    public CellLine(CellLine other) {
+        this(other.length);
+        for (int w = 0; w < wordCount; w++) {
+            set(w, other.getFilledWord(w));
+            set(wordCount + w, other.getEmptyWord(w));
+        }
+    }
+
+    /**
+     * Creates a line from its symbols, see {@link CellStatus#getSymbol()}
+     */
+    public CellLine(char[] symbols) {
+        this(symbols.length);
+        for (int i = 0; i < symbols.length; i++) {
+            setCellStatus(i, CellStatus.fromSymbol(symbols[i]));
+        }
+    }
+
+    public static int wordCount(int length) {
+        return (length + BITS_PER_WORD - 1) >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    public static int wordIndex(int i) {
+        return i >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * @return the mask of the bits of word w which belong to a line of the given length
+     */
+    public static long wordMask(int w, int length) {
+        int remaining = length - (w << ADDRESS_BITS_PER_WORD);
+        return remaining >= BITS_PER_WORD ? -1L : (1L << remaining) - 1;
+    }
+
+    /**
+     * sets the bits from (inclusive) to (inclusive) in the given words
+     */
+    public static void setRange(long[] words, int from, int to) {
+        from = Math.max(from, 0);
+        if (from > to) {
+            return;
+        }
+        int fromWord = wordIndex(from);
+        int toWord = wordIndex(to);
+        for (int w = fromWord; w <= toWord; w++) {
+            words[w] |= rangeMask(w, fromWord, toWord, from, to);
+        }
+    }
+
+    private static long rangeMask(int w, int fromWord, int toWord, int from, int to) {
+        long mask = -1L;
+        if (w == fromWord) {
+            mask &= -1L << from;
+        }
+        if (w == toWord) {
+            mask &= -1L >>> (BITS_PER_WORD - 1 - (to & (BITS_PER_WORD - 1)));
+        }
+        return mask;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * @return the index of the filled word of the cell in the words
+     */
+    private int filledIndex(int i) {
+        return stride == 0 ? offset + wordIndex(i) : offset + i * stride;
+    }
+
+    private long mask(int i) {
+        return 1L << (stride == 0 ? i : bit);
+    }
+
+    private long get(int index) {
+        return words != null ? words[index] : buffer.get(index);
+    }
+
+    private void set(int index, long word) {
+        if (words != null) {
+            words[index] = word;
+        } else {
+            buffer.put(index, word);
+        }
+    }
+
+    public long getFilledWord(int w) {
+        return stride == 0 ? get(offset + w) : gather(w, 0);
+    }
+
+    public long getEmptyWord(int w) {
+        return stride == 0 ? get(offset + emptyOffset + w) : gather(w, emptyOffset);
+    }
+
+    /**
+     * @return the bits of word w whose status is known
+     */
+    public long getKnownWord(int w) {
+        return getFilledWord(w) | getEmptyWord(w);
+    }
+
+    /**
+     * puts word w of a column together from the bit of the column in every row
+     *
+     * @param distance 0 for the filled word, {@link #emptyOffset} for the empty word
+     */
+    private long gather(int w, int distance) {
+        long word = 0;
+        int end = Math.min((w + 1) << ADDRESS_BITS_PER_WORD, length);
+        for (int i = w << ADDRESS_BITS_PER_WORD, index = offset + i * stride + distance; i < end; i++, index += stride) {
+            word |= (get(index) >>> bit & 1L) << i;
+        }
+        return word;
+    }
+
+    /**
+     * overwrites the cells of word w with the given bits
+     */
+    private void setWord(int w, long filledWord, long emptyWord) {
+        if (stride == 0) {
+            set(offset + w, filledWord);
+            set(offset + emptyOffset + w, emptyWord);
+            return;
+        }
+        long mask = 1L << bit;
+        int end = Math.min((w + 1) << ADDRESS_BITS_PER_WORD, length);
+        for (int i = w << ADDRESS_BITS_PER_WORD, index = offset + i * stride; i < end; i++, index += stride) {
+            set(index, get(index) & ~mask | (filledWord >>> i & 1L) << bit);
+            set(index + emptyOffset, get(index + emptyOffset) & ~mask | (emptyWord >>> i & 1L) << bit);
+        }
+    }
+
+    public void copyKnownTo(long[] known) {
+        for (int w = 0; w < wordCount; w++) {
+            known[w] = getKnownWord(w);
+        }
+    }
+
+    /**
+     * sets the status of all cells back to the ones of the given copy
+     */
+    public void restore(CellLine copy) {
+        for (int w = 0; w < wordCount; w++) {
+            setWord(w, copy.getFilledWord(w), copy.getEmptyWord(w));
+        }
+    }
+
+    /**
+     * @return the number of cells whose status is unknown
+     */
+    public int countUnknown() {
+        int unknown = 0;
+        for (int w = 0; w < wordCount; w++) {
+            unknown += Long.bitCount(~getKnownWord(w) & wordMask(w, length));
+        }
+        return unknown;
+    }
+
+    /**
+     * @return the position of the first unknown cell or -1 if every cell is known
+     */
+    public int firstUnknown() {
+        for (int w = 0; w < wordCount; w++) {
+            long unknown = ~getKnownWord(w) & wordMask(w, length);
+            if (unknown != 0) {
+                return (w << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(unknown);
+            }
+        }
+        return -1;
+    }
+
+    public CellStatus getStatus(int i) {
+        int index = filledIndex(i);
+        long mask = mask(i);
+        if ((get(index) & mask) != 0) {
+            return CellStatus.FILLED;
+        }
+        if ((get(index + emptyOffset) & mask) != 0) {
+            return CellStatus.EMPTY;
+        }
+        return CellStatus.UNKNOWN;
+    }
+
+    public boolean isFilled(int i) {
+        return (get(filledIndex(i)) & mask(i)) != 0;
+    }
+
+    public boolean isEmpty(int i) {
+        return (get(filledIndex(i) + emptyOffset) & mask(i)) != 0;
+    }
+
+    public boolean isUnknown(int i) {
+        int index = filledIndex(i);
+        return ((get(index) | get(index + emptyOffset)) & mask(i)) == 0;
+    }
+
+    /**
+     * set the cell to filled if the status was unknown
+     *
+     * @return true if the cell was unknown before
+     */
+    public boolean setRequired(int i) {
+        int index = filledIndex(i);
+        long mask = mask(i);
+        if ((get(index + emptyOffset) & mask) != 0) {
+            throw new IllegalStateException("The state of the cell " + i + " is already set to " + CellStatus.EMPTY);
+        }
+        long word = get(index);
+        set(index, word | mask);
+        return (word & mask) == 0;
+    }
+
+    /**
+     * set the cell to empty if the status was unknown
+     *
+     * @return true if the cell was unknown before
+     */
+    public boolean setUnreachable(int i) {
+        int index = filledIndex(i);
+        long mask = mask(i);
+        if ((get(index) & mask) != 0) {
+            throw new IllegalStateException("The state of the cell " + i + " is already set to " + CellStatus.FILLED);
+        }
+        long word = get(index + emptyOffset);
+        set(index + emptyOffset, word | mask);
+        return (word & mask) == 0;
+    }
+
+    /**
+     * @return true if the status of the cell changed
+     */
+    public boolean setCellStatus(int i, CellStatus status) {
+        return switch (status) {
+            case FILLED -> setRequired(i);
+            case EMPTY -> setUnreachable(i);
+            case UNKNOWN -> false;
+        };
+    }
+
+    /**
+     * like {@link #tryApplyOverlap(long[], long[], OverlapKernel)} with the best kernel of the platform
+     */
+    public int tryApplyOverlap(long[] required, long[] reachable) {
+        return tryApplyOverlap(required, reachable, OVERLAP_KERNEL);
+    }
+
+    /**
+     * sets all required cells to filled and all unknown cells which are not reachable to empty, for the whole line at
+     * once. After a conflict the line is unchanged.
+     *
+     * @param required  a bitset of the cells covered by a clue in every placement
+     * @param reachable a bitset of the cells that can still be filled, the unused bits of its last word are set here
+     * @param kernel    the kernel applying both bitsets, a column or a line outside of the heap applies them word by
+     *                  word without it
+     * @return {@link OverlapKernel#UNCHANGED}, {@link OverlapKernel#CHANGED} or {@link OverlapKernel#CONFLICT}
+     */
+    public int tryApplyOverlap(long[] required, long[] reachable, OverlapKernel kernel) {
+        int lastWord = wordCount - 1;
+        reachable[lastWord] |= ~wordMask(lastWord, length);
+        if (stride == 0 && words != null) {
+            return kernel.apply(words, offset, offset + emptyOffset, required, reachable);
+        }
+        if (firstConflict(required) >= 0) {
+            return OverlapKernel.CONFLICT;
+        }
+        int result = OverlapKernel.UNCHANGED;
+        for (int w = 0; w < wordCount; w++) {
+            long filledWord = getFilledWord(w);
+            long emptyWord = getEmptyWord(w);
+            long newFilled = filledWord | required[w];
+            long newEmpty = emptyWord | ~(newFilled | emptyWord | reachable[w]);
+            if (newFilled != filledWord || newEmpty != emptyWord) {
+                setWord(w, newFilled, newEmpty);
+                result = OverlapKernel.CHANGED;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the first cell, which is required but already empty, or -1
+     */
+    public int firstConflict(long[] required) {
+        for (int w = 0; w < wordCount; w++) {
+            long conflicts = required[w] & getEmptyWord(w);
+            if (conflicts != 0) {
+                return (w << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(conflicts);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * sets the cells marked in the given words to filled or empty
+     *
+     * @return true if at least one cell was unknown before
+     */
+    public boolean setKnown(long[] filledWords, long[] emptyWords) {
+        boolean changed = false;
+        for (int w = 0; w < wordCount; w++) {
+            long filledWord = getFilledWord(w);
+            long emptyWord = getEmptyWord(w);
+            if ((filledWords[w] & emptyWord) != 0 || (emptyWords[w] & filledWord) != 0) {
+                throw new IllegalStateException("The cells of word " + w + " can not be set, because they are already known " +
+                        "with a different status");
+            }
+            if (((filledWords[w] & ~filledWord) | (emptyWords[w] & ~emptyWord)) != 0) {
+                setWord(w, filledWord | filledWords[w], emptyWord | emptyWords[w]);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return true if the status of every cell is known
+     */
+    public boolean isComplete() {
+        for (int w = 0; w < wordCount; w++) {
+            if (getKnownWord(w) != wordMask(w, length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(getStatus(i).getSymbol());
+        }
+        return builder.toString();
+    }
+}
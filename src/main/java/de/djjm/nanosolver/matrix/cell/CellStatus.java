@@ -1,7 +1,26 @@
 package de.djjm.nanosolver.matrix.cell;
 
 public enum CellStatus {
-    UNKNOWN, FILLED, EMPTY;
+    UNKNOWN('?'), FILLED('#'), EMPTY(' ');
+
+    private final char symbol;
+
+    CellStatus(char symbol) {
+        this.symbol = symbol;
+    }
+
+    public static CellStatus fromSymbol(char symbol) {
+        return switch (symbol) {
+            case '?' -> UNKNOWN;
+            case ' ' -> EMPTY;
+            case '#' -> FILLED;
+            default -> throw new IllegalStateException("Could not parse " + symbol + " into a CellStatus");
+        };
+    }
+
+    public char getSymbol() {
+        return symbol;
+    }
 
     public boolean isFilled() {
         return this == FILLED;
@@ -0,0 +1,50 @@
+package de.djjm.nanosolver.matrix.cell;
+
+/**
+ * Applies the cells deduced from the clue ranges of a line to its bitsets, word by word for the whole line at once.
+ * <p>
+ * {@link #SCALAR} works on every JVM, {@link #best()} returns a kernel built on the incubating Vector API if the module
+ * {@code jdk.incubator.vector} was added to the JVM with {@code --add-modules jdk.incubator.vector}.
+ */
+public interface OverlapKernel {
+    OverlapKernel SCALAR = new ScalarOverlapKernel();
+
+    /**
+     * set to false to use the scalar kernel even if the Vector API is available
+     */
+    String VECTOR_PROPERTY = "nanosolver.vector";
+
+    int UNCHANGED = 0;
+    int CHANGED = 1;
+    int CONFLICT = -1;
+
+    /**
+     * sets every required cell to filled and every cell which is neither reachable nor known to empty. The line has
+     * one filled and one empty word for every word of required, they are updated in place.
+     *
+     * @param words       the words of the line, e.g. the words of a whole grid
+     * @param filledStart the index of the first filled word of the line in words
+     * @param emptyStart  the index of the first empty word of the line in words
+     * @param required    the cells covered by a clue in every placement
+     * @param reachable   the cells which can be covered by a clue, including the unused bits of the last word
+     * @return {@link #CONFLICT} if a required cell is already empty, in which case nothing is written, else {@link #CHANGED} or {@link #UNCHANGED}
+     */
+    int apply(long[] words, int filledStart, int emptyStart, long[] required, long[] reachable);
+
+    /**
+     * @return the vector kernel if the Vector API is available and not disabled, else {@link #SCALAR}
+     */
+    static OverlapKernel best() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            // loaded by name, so this interface does not depend on the incubator module
+            return (OverlapKernel) Class.forName("de.djjm.nanosolver.matrix.cell.VectorOverlapKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package de.djjm.nanosolver.matrix.cell;
+
+/**
+ * Applies the deduced cells one word after the other, after checking all words for a conflict
+ */
+class ScalarOverlapKernel implements OverlapKernel {
+    @Override
+    public int apply(long[] words, int filledStart, int emptyStart, long[] required, long[] reachable) {
+        long conflicts = 0;
+        for (int w = 0; w < required.length; w++) {
+            conflicts |= required[w] & words[emptyStart + w];
+        }
+        if (conflicts != 0) {
+            return CONFLICT;
+        }
+        long changes = 0;
+        for (int w = 0; w < required.length; w++) {
+            long filled = words[filledStart + w];
+            long empty = words[emptyStart + w];
+            long newFilled = filled | required[w];
+            long newEmpty = empty | ~(newFilled | empty | reachable[w]);
+            changes |= (newFilled ^ filled) | (newEmpty ^ empty);
+            words[filledStart + w] = newFilled;
+            words[emptyStart + w] = newEmpty;
+        }
+        return changes != 0 ? CHANGED : UNCHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
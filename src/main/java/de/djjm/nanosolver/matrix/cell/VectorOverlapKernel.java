@@ -0,0 +1,74 @@
+package de.djjm.nanosolver.matrix.cell;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Applies the deduced cells with the Vector API, four words at once. 256 bit vectors cover a line of 256 cells in a
+ * single pass, the words behind the last full vector are processed like in {@link ScalarOverlapKernel}. Masked vectors
+ * for the tail and 512 bit vectors were several times slower than the scalar loop on Java 17.
+ * It is only created by {@link OverlapKernel#best()}, which checks that the incubator module is available.
+ */
+class VectorOverlapKernel implements OverlapKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+
+    @Override
+    public int apply(long[] words, int filledStart, int emptyStart, long[] required, long[] reachable) {
+        int vectorEnd = SPECIES.loopBound(required.length);
+        if (hasConflict(words, emptyStart, required, vectorEnd)) {
+            return CONFLICT;
+        }
+        LongVector changes = LongVector.zero(SPECIES);
+        int w = 0;
+        for (; w < vectorEnd; w += SPECIES.length()) {
+            LongVector filledWords = LongVector.fromArray(SPECIES, words, filledStart + w);
+            LongVector emptyWords = LongVector.fromArray(SPECIES, words, emptyStart + w);
+            LongVector requiredWords = LongVector.fromArray(SPECIES, required, w);
+            LongVector reachableWords = LongVector.fromArray(SPECIES, reachable, w);
+
+            LongVector newFilled = filledWords.or(requiredWords);
+            LongVector newEmpty = emptyWords.or(newFilled.or(emptyWords).or(reachableWords).not());
+            changes = changes.or(newFilled.lanewise(VectorOperators.XOR, filledWords))
+                    .or(newEmpty.lanewise(VectorOperators.XOR, emptyWords));
+            newFilled.intoArray(words, filledStart + w);
+            newEmpty.intoArray(words, emptyStart + w);
+        }
+        long changeBits = changes.reduceLanes(VectorOperators.OR);
+        // the words behind the last full vector
+        for (; w < required.length; w++) {
+            long filled = words[filledStart + w];
+            long empty = words[emptyStart + w];
+            long newFilled = filled | required[w];
+            long newEmpty = empty | ~(newFilled | empty | reachable[w]);
+            changeBits |= (newFilled ^ filled) | (newEmpty ^ empty);
+            words[filledStart + w] = newFilled;
+            words[emptyStart + w] = newEmpty;
+        }
+        return changeBits != 0 ? CHANGED : UNCHANGED;
+    }
+
+    /**
+     * checks all words before anything is written, so a conflicting line is left unchanged
+     *
+     * @return true if a required cell is already empty
+     */
+    private static boolean hasConflict(long[] words, int emptyStart, long[] required, int vectorEnd) {
+        LongVector conflicts = LongVector.zero(SPECIES);
+        int w = 0;
+        for (; w < vectorEnd; w += SPECIES.length()) {
+            conflicts = conflicts.or(LongVector.fromArray(SPECIES, required, w)
+                    .and(LongVector.fromArray(SPECIES, words, emptyStart + w)));
+        }
+        long conflictBits = conflicts.reduceLanes(VectorOperators.OR);
+        for (; w < required.length; w++) {
+            conflictBits |= required[w] & words[emptyStart + w];
+        }
+        return conflictBits != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + SPECIES;
+    }
+}
@@ -1,19 +1,37 @@
 package de.djjm.nanosolver.matrix.clue;
 
-import de.djjm.nanosolver.matrix.cell.NonoCell;
+import de.djjm.nanosolver.matrix.cell.CellLine;
 
+/**
+ * A single clue of a line. The clues of a {@link de.djjm.nanosolver.matrix.NonoLine} are stored together in
+ * {@link ClueRanges}, a clue object is only a view of one of them.
+ */
 public interface Clue {
 
-    static Clue initializeClue(Integer length, int maxPosition) {
-        if(length == 0) return new PlacedClue();
-        return new UnplacedClue(length, maxPosition);
+    static Clue initializeClue(int length, int maxPosition) {
+        return new ClueRanges(new int[]{length}, maxPosition + 1).get(0);
     }
 
     Clue checkPlaced();
 
-    default void calculateLowestPosition(Clue lowerClue, NonoCell[] cells){}
+    /**
+     * @return false if the clue has no possible position anymore
+     */
+    default boolean calculateLowestPosition(Clue lowerClue, CellLine cells){
+        return true;
+    }
+
+    /**
+     * @return false if the clue has no possible position anymore
+     */
+    default boolean calculateHighestPosition(Clue higherClue, CellLine cells){
+        return true;
+    }
 
-    default void calculateHighestPosition(Clue higherClue, NonoCell[] cells){}
+    /**
+     * sets the possible positions back to a previously saved state
+     */
+    default void restorePositions(int lowestStart, int highestEnd) {}
 
     boolean needsToContainCell(int i);
 
@@ -22,9 +40,19 @@ public interface Clue {
     @Override
     String toString();
 
+    int getLowestStart();
+
     int getLowestEnd();
 
+    int getHighestEnd();
+
     int getHighestStart();
 
-    boolean fillRequiredCells(NonoCell[] cells);
+    /**
+     * marks the cells the clue covers in every possible position
+     *
+     * @param required the bitset of the required cells of the line
+     * @return false if the clue does not fit into its possible positions anymore
+     */
+    boolean markRequiredCells(long[] required);
 }
@@ -0,0 +1,88 @@
+package de.djjm.nanosolver.matrix.clue;
+
+import java.util.Arrays;
+
+/**
+ * Answers which clues of a line can contain a cell in constant time.
+ * <p>
+ * The possible positions of the clues are ordered: both the lowest starts and the highest ends grow with the index of
+ * the clue. So the clues which can contain a cell are always the run from the first clue whose highest end is not
+ * before the cell to the last clue whose lowest start is not behind it. Both clues are stored per cell, they are
+ * filled range by range from the clue positions in one pass over the line and kept up to date while single clues are
+ * narrowed.
+ */
+public class ClueRangeIndex {
+    public static final int NO_CLUE = -1;
+
+    /**
+     * the first clue whose highest end is at or behind the cell
+     */
+    private final int[] firstClue;
+    /**
+     * the last clue whose lowest start is at or before the cell
+     */
+    private final int[] lastClue;
+
+    public ClueRangeIndex(int length) {
+        firstClue = new int[length];
+        lastClue = new int[length];
+    }
+
+    /**
+     * calculates the index from the current possible positions of the clues
+     */
+    public void rebuild(ClueRanges clues) {
+        int length = firstClue.length;
+        // the cells behind the highest end of the previous clue up to the highest end of the clue start with the clue
+        int from = 0;
+        // the cells from the lowest start of the clue up to the lowest start of the next clue end with the clue
+        int lastFrom = 0;
+        int lastClueIndex = NO_CLUE;
+        for (int clue = 0; clue < clues.size(); clue++) {
+            int to = Math.min(clues.getHighestEnd(clue) + 1, length);
+            if (to > from) {
+                Arrays.fill(firstClue, from, to, clue);
+                from = to;
+            }
+            int lowestStart = Math.min(Math.max(clues.getLowestStart(clue), 0), length);
+            if (lowestStart > lastFrom) {
+                Arrays.fill(lastClue, lastFrom, lowestStart, lastClueIndex);
+                lastFrom = lowestStart;
+            }
+            lastClueIndex = clue;
+        }
+        Arrays.fill(firstClue, from, length, clues.size());
+        Arrays.fill(lastClue, lastFrom, length, lastClueIndex);
+    }
+
+    /**
+     * @return the index of the first clue which can contain the cell or {@link #NO_CLUE}
+     */
+    public int getFirstClue(int i) {
+        return firstClue[i] <= lastClue[i] ? firstClue[i] : NO_CLUE;
+    }
+
+    /**
+     * @return the index of the last clue which can contain the cell or {@link #NO_CLUE}
+     */
+    public int getLastClue(int i) {
+        return firstClue[i] <= lastClue[i] ? lastClue[i] : NO_CLUE;
+    }
+
+    /**
+     * updates the cells the clue can not contain anymore, the neighbouring clues take over as first or last clue,
+     * because they can contain every cell between the clue and them
+     */
+    public void narrowed(int clue, int oldLowestStart, int oldHighestEnd, int newLowestStart, int newHighestEnd) {
+        for (int i = Math.max(newHighestEnd + 1, 0); i <= oldHighestEnd; i++) {
+            if (firstClue[i] == clue) {
+                firstClue[i] = clue + 1;
+            }
+        }
+        for (int i = Math.max(oldLowestStart, 0); i < newLowestStart && i < lastClue.length; i++) {
+            if (lastClue[i] == clue) {
+                lastClue[i] = clue - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package de.djjm.nanosolver.matrix.clue;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+/**
+ * The possible positions of all clues of a line, stored as one array per attribute instead of one object per clue.
+ * A clue is placed, when it was found to fit exactly between its lowest start and highest end. A placed clue is not
+ * narrowed anymore and its cells are not marked again, the placed clues are kept in a bitmask.
+ * <p>
+ * A clue of length 0 is placed at -1 from the beginning. {@link #get(int)} returns a {@link Clue} view of a single clue.
+ */
+public class ClueRanges {
+    public static final int GO_UP = 1;
+    public static final int GO_DOWN = -1;
+    public static final int NEEDED_DISTANCE = 2;
+    private static final int NO_POSITION = Integer.MIN_VALUE;
+
+    private final int[] length;
+    private final int[] lowestStart;
+    private final int[] highestEnd;
+    private final long[] placed;
+
+    /**
+     * @param lengths    the lengths of the clues, which must not be changed afterwards
+     * @param lineLength the number of cells of the line
+     */
+    public ClueRanges(int[] lengths, int lineLength) {
+        length = lengths;
+        lowestStart = new int[lengths.length];
+        highestEnd = new int[lengths.length];
+        placed = new long[CellLine.wordCount(lengths.length)];
+        for (int clue = 0; clue < lengths.length; clue++) {
+            if (lengths[clue] == 0) {
+                lowestStart[clue] = -1;
+                highestEnd[clue] = -1;
+                placed[CellLine.wordIndex(clue)] |= 1L << clue;
+            } else {
+                highestEnd[clue] = lineLength - 1;
+            }
+        }
+    }
+
+    /**
+     * creates a copy of the positions, the lengths are shared
+     */
+    public ClueRanges(ClueRanges other) {
+        length = other.length;
+        lowestStart = other.lowestStart.clone();
+        highestEnd = other.highestEnd.clone();
+        placed = other.placed.clone();
+    }
+
+    /**
+     * sets the positions back to the ones of the copy
+     */
+    public void restore(ClueRanges copy) {
+        System.arraycopy(copy.lowestStart, 0, lowestStart, 0, lowestStart.length);
+        System.arraycopy(copy.highestEnd, 0, highestEnd, 0, highestEnd.length);
+        System.arraycopy(copy.placed, 0, placed, 0, placed.length);
+    }
+
+    public int size() {
+        return length.length;
+    }
+
+    public int getLength(int clue) {
+        return length[clue];
+    }
+
+    public int getLowestStart(int clue) {
+        return lowestStart[clue];
+    }
+
+    public int getHighestEnd(int clue) {
+        return highestEnd[clue];
+    }
+
+    public int getLowestEnd(int clue) {
+        return lowestStart[clue] + length[clue] - 1;
+    }
+
+    public int getHighestStart(int clue) {
+        return highestEnd[clue] - length[clue] + 1;
+    }
+
+    public boolean isPlaced(int clue) {
+        return (placed[CellLine.wordIndex(clue)] & 1L << clue) != 0;
+    }
+
+    public boolean canContain(int clue, int i) {
+        return i <= highestEnd[clue] && i >= lowestStart[clue];
+    }
+
+    /**
+     * moves the lowest start of the clue behind the lowest end of the previous clue and to the first position it fits
+     *
+     * @return false if the clue has no possible position anymore
+     */
+    public boolean calculateLowestPosition(int clue, CellLine cells) {
+        if (clue == 0) {
+            return calculateLowestPosition(clue, lowestStart[clue], cells);
+        }
+        return calculateLowestPosition(clue, getLowestEnd(clue - 1) + NEEDED_DISTANCE, cells);
+    }
+
+    /**
+     * moves the highest end of the clue before the highest start of the next clue and to the last position it fits
+     *
+     * @return false if the clue has no possible position anymore
+     */
+    public boolean calculateHighestPosition(int clue, CellLine cells) {
+        if (clue == length.length - 1) {
+            return calculateHighestPosition(clue, highestEnd[clue], cells);
+        }
+        return calculateHighestPosition(clue, getHighestStart(clue + 1) - NEEDED_DISTANCE, cells);
+    }
+
+    /**
+     * @param minimalStart the start the clue has to begin at or behind, e.g. because of the previous clue
+     */
+    boolean calculateLowestPosition(int clue, int minimalStart, CellLine cells) {
+        if (isPlaced(clue)) {
+            return true;
+        }
+        int position = calculatePossiblePosition(clue, cells, GO_UP, Math.max(minimalStart, lowestStart[clue]));
+        if (position == NO_POSITION) {
+            return false;
+        }
+        lowestStart[clue] = position;
+        return true;
+    }
+
+    /**
+     * @param maximalEnd the end the clue has to finish at or before, e.g. because of the next clue
+     */
+    boolean calculateHighestPosition(int clue, int maximalEnd, CellLine cells) {
+        if (isPlaced(clue)) {
+            return true;
+        }
+        int position = calculatePossiblePosition(clue, cells, GO_DOWN, Math.min(maximalEnd, highestEnd[clue]));
+        if (position == NO_POSITION) {
+            return false;
+        }
+        highestEnd[clue] = position;
+        return true;
+    }
+
+    /**
+     * searches the first position in the direction, at which the clue fits and which is not followed by a filled cell
+     * <p>
+     * The candidate position is the run of filled and unknown cells from windowStart to the current cell. It is
+     * tracked by its start and length only, so the search runs in linear time without allocating anything.
+     *
+     * @return the start of the position for {@link #GO_UP} and its end for {@link #GO_DOWN}, {@link #NO_POSITION} if
+     * the clue does not fit anywhere
+     */
+    private int calculatePossiblePosition(int clue, CellLine cells, int direction, int startValue) {
+        int clueLength = length[clue];
+        int border = direction == GO_UP ? cells.getLength() : 1;
+
+        int windowStart = startValue;
+        int windowLength = 0;
+        int iteratorPos;
+
+        for (iteratorPos = startValue; iteratorPos * direction < border; iteratorPos += direction) {
+            CellStatus status = cells.getStatus(iteratorPos);
+            if (windowLength == clueLength && !status.isFilled()) {
+                break;
+            }
+            switch (status) {
+                case EMPTY -> {
+                    windowStart = iteratorPos + direction;
+                    windowLength = 0;
+                }
+                case UNKNOWN -> {
+                    if (windowLength > clueLength) {
+                        windowStart = iteratorPos + direction;
+                        windowLength = 0;
+                    } else {
+                        windowLength++;
+                    }
+                }
+                case FILLED -> {
+                    if (windowLength == clueLength) {
+                        //the filled cell has to be covered, so the position is moved behind its first unknown cell
+                        int firstUnknown = findFirstUnknown(cells, direction, windowStart, windowLength);
+                        if (firstUnknown >= 0) {
+                            windowLength -= (firstUnknown - windowStart) * direction + 1;
+                            windowStart = firstUnknown + direction;
+                        }
+                    }
+                    windowLength++;
+                }
+            }
+        }
+        if (windowLength != clueLength) {
+            return NO_POSITION;
+        }
+        return iteratorPos - (clueLength * direction);
+    }
+
+    /**
+     * @return the first unknown cell of the window in the direction or -1 if there is none
+     */
+    private static int findFirstUnknown(CellLine cells, int direction, int windowStart, int windowLength) {
+        for (int i = 0, pos = windowStart; i < windowLength; i++, pos += direction) {
+            if (cells.isUnknown(pos)) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * narrows the clue to the positions containing the cell, a placed clue can not be narrowed any further
+     *
+     * @return true if the positions of the clue changed
+     */
+    public boolean needsToContainCell(int clue, int i) {
+        if (isPlaced(clue)) {
+            return false;
+        }
+        int highestEndOld = highestEnd[clue];
+        int lowestStartOld = lowestStart[clue];
+        highestEnd[clue] = Math.min(highestEndOld, i + length[clue] - 1);
+        lowestStart[clue] = Math.max(lowestStartOld, i - length[clue] + 1);
+        return !(highestEndOld == highestEnd[clue] && lowestStartOld == lowestStart[clue]);
+    }
+
+    /**
+     * marks the cells the clue covers in every possible position, the cells of a placed clue were filled while it was
+     * placed, so there is nothing to mark
+     *
+     * @param required the bitset of the required cells of the line
+     * @return false if the clue does not fit into its possible positions anymore
+     */
+    public boolean markRequiredCells(int clue, long[] required) {
+        if (isPlaced(clue)) {
+            return true;
+        }
+        int clueLength = length[clue];
+        if (highestEnd[clue] - lowestStart[clue] + 1 < clueLength) {
+            return false;
+        }
+        CellLine.setRange(required, highestEnd[clue] - clueLength + 1, lowestStart[clue] + clueLength - 1);
+        return true;
+    }
+
+    /**
+     * places every clue which fits exactly between its lowest start and highest end
+     */
+    public void checkPlaced() {
+        for (int clue = 0; clue < length.length; clue++) {
+            checkPlaced(clue);
+        }
+    }
+
+    void checkPlaced(int clue) {
+        if (length[clue] == highestEnd[clue] - lowestStart[clue] + 1) {
+            placed[CellLine.wordIndex(clue)] |= 1L << clue;
+        }
+    }
+
+    /**
+     * sets the possible positions of an unplaced clue, e.g. to the ones of a saved snapshot. The clue is placed if it
+     * fits exactly between them, a clue of length 0 stays at -1.
+     */
+    public void restorePositions(int clue, int lowestStart, int highestEnd) {
+        if (length[clue] == 0) {
+            return;
+        }
+        placed[CellLine.wordIndex(clue)] &= ~(1L << clue);
+        this.lowestStart[clue] = lowestStart;
+        this.highestEnd[clue] = highestEnd;
+        checkPlaced(clue);
+    }
+
+    /**
+     * @return a view of the clue, which reads and narrows the positions stored here
+     */
+    public Clue get(int clue) {
+        return new ClueView(this, clue);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder clues = new StringBuilder();
+        for (int clueLength : length) {
+            clues.append(' ').append(clueLength);
+        }
+        return clues.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package de.djjm.nanosolver.matrix.clue;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+
+/**
+ * A single clue of {@link ClueRanges}, every call reads or changes the positions stored there
+ */
+class ClueView implements Clue {
+    private final ClueRanges ranges;
+    private final int clue;
+
+    ClueView(ClueRanges ranges, int clue) {
+        this.ranges = ranges;
+        this.clue = clue;
+    }
+
+    public Clue checkPlaced() {
+        ranges.checkPlaced(clue);
+        return this;
+    }
+
+    @Override
+    public boolean calculateLowestPosition(Clue lowerClue, CellLine cells) {
+        int minimalStart = lowerClue == null ? Integer.MIN_VALUE : lowerClue.getLowestEnd() + ClueRanges.NEEDED_DISTANCE;
+        return ranges.calculateLowestPosition(clue, minimalStart, cells);
+    }
+
+    @Override
+    public boolean calculateHighestPosition(Clue higherClue, CellLine cells) {
+        int maximalEnd = higherClue == null ? Integer.MAX_VALUE : higherClue.getHighestStart() - ClueRanges.NEEDED_DISTANCE;
+        return ranges.calculateHighestPosition(clue, maximalEnd, cells);
+    }
+
+    @Override
+    public void restorePositions(int lowestStart, int highestEnd) {
+        ranges.restorePositions(clue, lowestStart, highestEnd);
+    }
+
+    public boolean needsToContainCell(int i) {
+        return ranges.needsToContainCell(clue, i);
+    }
+
+    public boolean canContain(int i) {
+        return ranges.canContain(clue, i);
+    }
+
+    public String toString() {
+        return " " + ranges.getLength(clue);
+    }
+
+    public int getLowestStart() {
+        return ranges.getLowestStart(clue);
+    }
+
+    public int getLowestEnd() {
+        return ranges.getLowestEnd(clue);
+    }
+
+    public int getHighestEnd() {
+        return ranges.getHighestEnd(clue);
+    }
+
+    public int getHighestStart() {
+        return ranges.getHighestStart(clue);
+    }
+
+    public boolean markRequiredCells(long[] required) {
+        return ranges.markRequiredCells(clue, required);
+    }
+}
@@ -0,0 +1,196 @@
+package de.djjm.nanosolver.matrix.solver;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+
+import java.util.Arrays;
+
+/**
+ * Complete line solver: deduces every cell which has the same status in all placements of the clues.
+ * <p>
+ * For every clue count j and cell position i it calculates whether the first j clues fit into the cells before i
+ * (prefix) and whether the clues from j on fit into the cells from i on (suffix). A cell can be empty if a prefix and
+ * a suffix meet at it, and it can be filled if a clue placement with a fitting prefix and suffix covers it.
+ * This takes O(cells * clues) and reuses the working arrays of the calling thread, so no memory is allocated once
+ * they are big enough.
+ */
+public class DynamicLineSolver implements LineSolver {
+    public static final DynamicLineSolver INSTANCE = new DynamicLineSolver();
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    @Override
+    public int solve(int[] clues, CellLine cells) {
+        Workspace workspace = WORKSPACE.get();
+        workspace.load(clues, cells);
+        if (!workspace.calculatePrefixes()) {
+            return CONTRADICTION;
+        }
+        workspace.calculateSuffixes();
+        workspace.calculateCoverage();
+        return workspace.applyForcedCells(cells) ? CHANGED : UNCHANGED;
+    }
+
+    private static class Workspace {
+        private int[] clues;
+        private int length;
+        private int clueCount;
+        /**
+         * number of filled / empty cells before position i
+         */
+        private int[] filledBefore = new int[0];
+        private int[] emptyBefore = new int[0];
+        /**
+         * prefix[j * (length + 1) + i]: the clues 0 to j - 1 fit into the cells 0 to i - 1
+         */
+        private boolean[] prefix = new boolean[0];
+        /**
+         * suffix[j * (length + 1) + i]: the clues j to clueCount - 1 fit into the cells i to length - 1
+         */
+        private boolean[] suffix = new boolean[0];
+        /**
+         * difference array of the number of valid clue placements covering a cell
+         */
+        private int[] coverage = new int[0];
+
+        void load(int[] clues, CellLine cells) {
+            this.clues = clues;
+            length = cells.getLength();
+            clueCount = clues.length;
+            ensureCapacity();
+            for (int i = 0; i < length; i++) {
+                filledBefore[i + 1] = filledBefore[i] + (cells.isFilled(i) ? 1 : 0);
+                emptyBefore[i + 1] = emptyBefore[i] + (cells.isEmpty(i) ? 1 : 0);
+            }
+        }
+
+        private void ensureCapacity() {
+            if (filledBefore.length < length + 1) {
+                filledBefore = new int[length + 1];
+                emptyBefore = new int[length + 1];
+                coverage = new int[length + 1];
+            }
+            int tableSize = (clueCount + 1) * (length + 1);
+            if (prefix.length < tableSize) {
+                prefix = new boolean[tableSize];
+                suffix = new boolean[tableSize];
+            }
+        }
+
+        private boolean hasFilled(int from, int to) {
+            return filledBefore[to] - filledBefore[from] > 0;
+        }
+
+        private boolean hasEmpty(int from, int to) {
+            return emptyBefore[to] - emptyBefore[from] > 0;
+        }
+
+        private boolean prefix(int j, int i) {
+            return prefix[j * (length + 1) + i];
+        }
+
+        private boolean suffix(int j, int i) {
+            return suffix[j * (length + 1) + i];
+        }
+
+        /**
+         * @return true if all clues fit into the line
+         */
+        boolean calculatePrefixes() {
+            for (int i = 0; i <= length; i++) {
+                prefix[i] = !hasFilled(0, i);
+            }
+            for (int j = 1; j <= clueCount; j++) {
+                int row = j * (length + 1);
+                prefix[row] = false;
+                for (int i = 1; i <= length; i++) {
+                    prefix[row + i] = (prefix[row + i - 1] && !hasFilled(i - 1, i)) || fitsBefore(j - 1, i - clues[j - 1]);
+                }
+            }
+            return prefix(clueCount, length);
+        }
+
+        void calculateSuffixes() {
+            int lastRow = clueCount * (length + 1);
+            for (int i = 0; i <= length; i++) {
+                suffix[lastRow + i] = !hasFilled(i, length);
+            }
+            for (int j = clueCount - 1; j >= 0; j--) {
+                int row = j * (length + 1);
+                suffix[row + length] = false;
+                for (int i = length - 1; i >= 0; i--) {
+                    suffix[row + i] = (suffix[row + i + 1] && !hasFilled(i, i + 1)) || fitsAfter(j, i + clues[j] - 1);
+                }
+            }
+        }
+
+        /**
+         * @return true if clue j can start at position start with all lower clues fitting before it
+         */
+        private boolean fitsBefore(int j, int start) {
+            if (start < 0 || hasEmpty(start, start + clues[j])) {
+                return false;
+            }
+            if (start == 0) {
+                return prefix(j, 0);
+            }
+            return !hasFilled(start - 1, start) && prefix(j, start - 1);
+        }
+
+        /**
+         * @return true if clue j can end at position end with all higher clues fitting after it
+         */
+        private boolean fitsAfter(int j, int end) {
+            int start = end - clues[j] + 1;
+            if (end >= length || hasEmpty(start, end + 1)) {
+                return false;
+            }
+            if (end == length - 1) {
+                return suffix(j + 1, length);
+            }
+            return !hasFilled(end + 1, end + 2) && suffix(j + 1, end + 2);
+        }
+
+        void calculateCoverage() {
+            Arrays.fill(coverage, 0, length + 1, 0);
+            for (int j = 0; j < clueCount; j++) {
+                for (int start = 0; start + clues[j] <= length; start++) {
+                    if (fitsBefore(j, start) && fitsAfter(j, start + clues[j] - 1)) {
+                        coverage[start]++;
+                        coverage[start + clues[j]]--;
+                    }
+                }
+            }
+        }
+
+        private boolean canBeEmpty(int i) {
+            for (int j = 0; j <= clueCount; j++) {
+                if (prefix(j, i) && suffix(j, i + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return true if at least one cell changed
+         */
+        boolean applyForcedCells(CellLine cells) {
+            boolean changed = false;
+            int covered = 0;
+            for (int i = 0; i < length; i++) {
+                covered += coverage[i];
+                if (!cells.isUnknown(i)) {
+                    continue;
+                }
+                boolean canBeFilled = covered > 0;
+                boolean canBeEmpty = canBeEmpty(i);
+                if (canBeFilled && !canBeEmpty) {
+                    changed |= cells.setRequired(i);
+                } else if (canBeEmpty && !canBeFilled) {
+                    changed |= cells.setUnreachable(i);
+                }
+            }
+            return changed;
+        }
+    }
+}
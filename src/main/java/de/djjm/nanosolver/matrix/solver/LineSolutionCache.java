@@ -0,0 +1,171 @@
+package de.djjm.nanosolver.matrix.solver;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the deductions of a line solver for a clue list and the known cells of a line.
+ * Lines with the same clues often reach the same state, in one puzzle as well as in the branches of the search and in
+ * other puzzles, so one cache can be shared by all of them. It is safe to use from several threads.
+ * <p>
+ * The entries are split into segments, each of them evicts its least recently used entry when it is full. Clue lists
+ * which can not be placed are remembered as well.
+ */
+public class LineSolutionCache implements LineSolver {
+    private static final int SEGMENT_COUNT = 16;
+    private static final Solution NO_SOLUTION = new Solution(null, null);
+
+    private final LineSolver solver;
+    private final Segment[] segments;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * @param maxSize the maximal number of remembered lines
+     */
+    public LineSolutionCache(int maxSize) {
+        this(DynamicLineSolver.INSTANCE, maxSize);
+    }
+
+    /**
+     * @param solver  the solver whose deductions are remembered, it has to depend only on the clues and the known cells
+     * @param maxSize the maximal number of remembered lines
+     */
+    public LineSolutionCache(LineSolver solver, int maxSize) {
+        if (maxSize < SEGMENT_COUNT) {
+            throw new IllegalArgumentException("The cache needs room for at least " + SEGMENT_COUNT + " lines, but the size is " + maxSize);
+        }
+        this.solver = solver;
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(maxSize / SEGMENT_COUNT);
+        }
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    @Override
+    public int solve(int[] clues, CellLine cells) {
+        Key key = new Key(clues, cells);
+        Segment segment = segments[(key.hash ^ key.hash >>> 16) & (SEGMENT_COUNT - 1)];
+        Solution solution;
+        synchronized (segment) {
+            solution = segment.get(key);
+        }
+        if (solution != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            solution = solveCopy(clues, cells);
+            synchronized (segment) {
+                segment.put(key, solution);
+            }
+        }
+        if (solution == NO_SOLUTION) {
+            return CONTRADICTION;
+        }
+        // the solution was deduced from the same known cells, so it never conflicts with them
+        return cells.setKnown(solution.filled, solution.empty) ? CHANGED : UNCHANGED;
+    }
+
+    private Solution solveCopy(int[] clues, CellLine cells) {
+        CellLine copy = new CellLine(cells);
+        if (solver.solve(clues, copy) == CONTRADICTION) {
+            return NO_SOLUTION;
+        }
+        int wordCount = copy.getWordCount();
+        long[] filled = new long[wordCount];
+        long[] empty = new long[wordCount];
+        for (int w = 0; w < wordCount; w++) {
+            filled[w] = copy.getFilledWord(w);
+            empty[w] = copy.getEmptyWord(w);
+        }
+        return new Solution(filled, empty);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of remembered lines
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "LineSolutionCache{hits=" + getHitCount() + ", misses=" + getMissCount() + ", size=" + size() + "}";
+    }
+
+    private static class Segment extends LinkedHashMap<Key, Solution> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Solution> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * the filled and empty cells of a line after solving it
+     */
+    private record Solution(long[] filled, long[] empty) {
+    }
+
+    /**
+     * the length of the line, the clues and the filled and empty cells packed into one array
+     */
+    private static class Key {
+        private final long[] words;
+        private final int hash;
+
+        Key(int[] clues, CellLine cells) {
+            int wordCount = cells.getWordCount();
+            int clueWords = (clues.length + 1) / 2;
+            words = new long[1 + clueWords + 2 * wordCount];
+            words[0] = (long) cells.getLength() << 32 | clues.length;
+            for (int i = 0; i < clues.length; i++) {
+                words[1 + i / 2] |= (long) clues[i] << (i % 2 * 32);
+            }
+            for (int w = 0; w < wordCount; w++) {
+                words[1 + clueWords + w] = cells.getFilledWord(w);
+                words[1 + clueWords + wordCount + w] = cells.getEmptyWord(w);
+            }
+            hash = Arrays.hashCode(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && hash == key.hash && Arrays.equals(words, key.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
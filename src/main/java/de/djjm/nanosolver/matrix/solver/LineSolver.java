@@ -0,0 +1,27 @@
+package de.djjm.nanosolver.matrix.solver;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+
+/**
+ * Strategy to deduce the status of cells in a single line from its clues
+ */
+public interface LineSolver {
+    int UNCHANGED = 0;
+    int CHANGED = 1;
+    int CONTRADICTION = -1;
+
+    /**
+     * A LineSolver which never deduces anything
+     */
+    LineSolver NONE = (clues, cells) -> UNCHANGED;
+
+    /**
+     * sets every cell of the line, which the solver can deduce
+     *
+     * @param clues the lengths of the clues from the lowest to the highest position, without empty clues
+     * @param cells the cells of the line, which are updated in place
+     * @return {@link #CHANGED} if at least one cell changed, {@link #UNCHANGED} if not and {@link #CONTRADICTION} if
+     * the clues can not be placed in the line, the cells are not changed then
+     */
+    int solve(int[] clues, CellLine cells);
+}
@@ -0,0 +1,18 @@
+package de.djjm.nanosolver.portfolio;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+
+/**
+ * The outcome of a race of the {@link PortfolioSolver}
+ *
+ * @param winner        the name of the strategy which solved the nonogram first, null if none solved it
+ * @param solution      the copy of the nonogram solved by the winner, null if none solved it
+ * @param timedOut      true if the race was cancelled by the timeout
+ * @param contradiction true if a strategy proved that the nonogram has no solution
+ */
+public record PortfolioResult(String winner, Nonogram solution, boolean timedOut, boolean contradiction) {
+
+    public boolean isSolved() {
+        return solution != null;
+    }
+}
@@ -0,0 +1,219 @@
+package de.djjm.nanosolver.portfolio;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Races several strategies on copies of the same nonogram and returns the solution of the first strategy which solves
+ * it. The other strategies are cancelled by interrupting their threads and the race returns once all of them stopped,
+ * so no strategy keeps running in the background. A strategy proving that the nonogram has no solution ends the race
+ * as well, as none of the others can win it then. A strategy which fails with an exception only drops out of the race.
+ * <p>
+ * The copies report to the solver listener of the nonogram, so it has to accept calls from several threads.
+ * <p>
+ * The wins of every strategy are counted over all races, which shows the strategies worth keeping as defaults.
+ * The solver can be shared by several threads, every race uses its own copies of the nonogram.
+ */
+public class PortfolioSolver {
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+    private final List<SolverStrategy> strategies;
+    private final ExecutorService executor;
+    private final Map<String, LongAdder> wins;
+    private final LongAdder unsolved;
+    private final LongAdder cancelNanos;
+
+    /**
+     * @param executor runs the strategies, it needs a free thread per strategy to race them, e.g. a cached thread pool
+     */
+    public PortfolioSolver(List<SolverStrategy> strategies, ExecutorService executor) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("At least one strategy is required");
+        }
+        this.strategies = List.copyOf(strategies);
+        this.executor = executor;
+        wins = new LinkedHashMap<>();
+        for (SolverStrategy strategy : strategies) {
+            if (wins.put(strategy.getName(), new LongAdder()) != null) {
+                throw new IllegalArgumentException("The strategy name " + strategy.getName() + " is used twice");
+            }
+        }
+        unsolved = new LongAdder();
+        cancelNanos = new LongAdder();
+    }
+
+    /**
+     * races the strategies until one of them solves the nonogram or proves that it has no solution, or all of them
+     * gave up
+     *
+     * @param nonogram is not changed, the strategies solve copies of it
+     * @throws IllegalStateException if the calling thread is interrupted while waiting
+     */
+    public PortfolioResult solve(Nonogram nonogram) {
+        return solve(nonogram, NO_TIMEOUT);
+    }
+
+    /**
+     * @param timeoutNanos the time after which all strategies are cancelled
+     * @see #solve(Nonogram)
+     */
+    public PortfolioResult solve(Nonogram nonogram, long timeoutNanos) {
+        long deadline = timeoutNanos == NO_TIMEOUT ? NO_TIMEOUT : System.nanoTime() + timeoutNanos;
+        Race race = new Race(strategies.size());
+        for (int i = 0; i < strategies.size(); i++) {
+            int index = i;
+            executor.execute(() -> race.run(index, strategies.get(index), nonogram));
+        }
+        PortfolioResult result = null;
+        try {
+            for (int finished = 0; finished < strategies.size() && result == null; finished++) {
+                Attempt attempt = deadline == NO_TIMEOUT ? race.results.take()
+                        : race.results.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (attempt == null) {
+                    result = new PortfolioResult(null, null, true, false);
+                } else if (attempt.solution != null) {
+                    result = new PortfolioResult(attempt.strategy.getName(), attempt.solution, false, false);
+                } else if (attempt.contradiction) {
+                    result = new PortfolioResult(null, null, false, true);
+                }
+            }
+        } catch (InterruptedException e) {
+            race.cancelAndAwait();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while racing the strategies", e);
+        }
+        long cancelStart = System.nanoTime();
+        race.cancelAndAwait();
+        cancelNanos.add(System.nanoTime() - cancelStart);
+        if (result == null) {
+            result = new PortfolioResult(null, null, false, false);
+        }
+        if (result.isSolved()) {
+            wins.get(result.winner()).increment();
+        } else {
+            unsolved.increment();
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of races won per strategy name, in the order of the strategies
+     */
+    public Map<String, Long> getWinCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        wins.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    /**
+     * @return the number of races no strategy won
+     */
+    public long getUnsolvedCount() {
+        return unsolved.sum();
+    }
+
+    @Override
+    public String toString() {
+        long races = unsolved.sum();
+        for (LongAdder count : wins.values()) {
+            races += count.sum();
+        }
+        return "wins " + getWinCounts() + ", unsolved " + unsolved.sum() + ", average cancel time " +
+                (races == 0 ? 0 : cancelNanos.sum() / races / 1000) + " us";
+    }
+
+    /**
+     * @param solution      the solved copy or null if the strategy gave up or failed
+     * @param contradiction true if the strategy proved that the nonogram has no solution
+     */
+    private record Attempt(SolverStrategy strategy, Nonogram solution, boolean contradiction) {
+    }
+
+    /**
+     * The threads of the strategies of one race. A thread is only interrupted while it runs a strategy of the race,
+     * so the interrupt can not hit a later task of the executor.
+     */
+    private static class Race {
+        private final BlockingQueue<Attempt> results;
+        private final Thread[] threads;
+        private final CountDownLatch stopped;
+        private boolean cancelled;
+
+        Race(int strategies) {
+            results = new ArrayBlockingQueue<>(strategies);
+            threads = new Thread[strategies];
+            stopped = new CountDownLatch(strategies);
+        }
+
+        void run(int index, SolverStrategy strategy, Nonogram nonogram) {
+            Nonogram solution = null;
+            boolean contradiction = false;
+            try {
+                if (start(index)) {
+                    // the copy is created by the strategy's thread, the nonogram is not changed while the race runs
+                    Nonogram copy = new Nonogram(nonogram);
+                    copy.setSolverListener(nonogram.getSolverListener());
+                    SolverStrategy.Outcome outcome = strategy.solve(copy);
+                    if (outcome == SolverStrategy.Outcome.SOLVED && copy.fulfillsClues()) {
+                        solution = copy;
+                    } else {
+                        // a solution violating the clues proves the contradiction as well
+                        contradiction = outcome != SolverStrategy.Outcome.GAVE_UP;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // a failure of a single strategy does not stop the others, e.g. one failing on the interrupt
+            } finally {
+                finish(index);
+                results.add(new Attempt(strategy, solution, contradiction));
+                stopped.countDown();
+            }
+        }
+
+        private synchronized boolean start(int index) {
+            if (cancelled) {
+                return false;
+            }
+            threads[index] = Thread.currentThread();
+            return true;
+        }
+
+        private synchronized void finish(int index) {
+            threads[index] = null;
+            // clears an interrupt the strategy did not consume before the thread returns to the executor
+            Thread.interrupted();
+        }
+
+        void cancelAndAwait() {
+            synchronized (this) {
+                cancelled = true;
+                for (Thread thread : threads) {
+                    if (thread != null) {
+                        thread.interrupt();
+                    }
+                }
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    stopped.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
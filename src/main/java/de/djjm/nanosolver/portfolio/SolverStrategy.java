@@ -0,0 +1,129 @@
+package de.djjm.nanosolver.portfolio;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.solver.LineSolver;
+import de.djjm.nanosolver.search.BacktrackingSolver;
+import de.djjm.nanosolver.search.BranchingHeuristic;
+import de.djjm.nanosolver.search.ProbingSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * One way to solve a nonogram, raced against others by the {@link PortfolioSolver}.
+ * A strategy has to stop soon after its thread is interrupted, as the other strategies are cancelled this way once one
+ * of them found the solution. A contradiction has to be reported as {@link Outcome#NO_SOLUTION}, an exception only
+ * means that the strategy failed.
+ */
+public interface SolverStrategy {
+
+    enum Outcome {
+        /**
+         * every cell is known, the nonogram holds the solution
+         */
+        SOLVED,
+        /**
+         * the strategy proved that the nonogram has no solution
+         */
+        NO_SOLUTION,
+        /**
+         * the strategy could not deduce every cell or was interrupted
+         */
+        GAVE_UP
+    }
+
+    String getName();
+
+    /**
+     * @param nonogram a copy owned by the strategy
+     */
+    Outcome solve(Nonogram nonogram);
+
+    static SolverStrategy of(String name, Function<Nonogram, Outcome> solver) {
+        return new SolverStrategy() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Outcome solve(Nonogram nonogram) {
+                return solver.apply(nonogram);
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    /**
+     * the clue range logic of the lines without the exact line solver. The solution cache is cleared as well, as it
+     * runs the exact line solver instead of the clue range logic.
+     */
+    static SolverStrategy lineLogic() {
+        return of("line", nonogram -> {
+            nonogram.setSolutionCache(null);
+            for (int row = 0; row < nonogram.getHeight(); row++) {
+                nonogram.getHorizontalLine(row).setExactSolver(LineSolver.NONE);
+            }
+            for (int column = 0; column < nonogram.getWidth(); column++) {
+                nonogram.getVerticalLine(column).setExactSolver(LineSolver.NONE);
+            }
+            return solveLines(nonogram);
+        });
+    }
+
+    /**
+     * the line logic with the exact line solver, which finds everything a single line can deduce
+     */
+    static SolverStrategy exactLineLogic() {
+        return of("exact-line", SolverStrategy::solveLines);
+    }
+
+    /**
+     * does solve iterations like {@link Nonogram#trySolve()}, but stops if the thread is interrupted
+     */
+    private static Outcome solveLines(Nonogram nonogram) {
+        while (!Thread.currentThread().isInterrupted() && nonogram.trySolveStep()) ;
+        if (nonogram.getContradiction() != null) {
+            return Outcome.NO_SOLUTION;
+        }
+        return nonogram.isSolved() ? Outcome.SOLVED : Outcome.GAVE_UP;
+    }
+
+    static SolverStrategy probing() {
+        return of("probing", nonogram -> {
+            ProbingSolver solver = new ProbingSolver();
+            if (solver.solve(nonogram)) {
+                return Outcome.SOLVED;
+            }
+            return solver.isContradiction() ? Outcome.NO_SOLUTION : Outcome.GAVE_UP;
+        });
+    }
+
+    static SolverStrategy search(BranchingHeuristic branchingHeuristic) {
+        return of("search-" + branchingHeuristic.name().toLowerCase(Locale.ROOT).replace('_', '-'), nonogram -> {
+            BacktrackingSolver solver = new BacktrackingSolver();
+            solver.setBranchingHeuristic(branchingHeuristic);
+            if (solver.solve(nonogram)) {
+                return Outcome.SOLVED;
+            }
+            return solver.isAborted() ? Outcome.GAVE_UP : Outcome.NO_SOLUTION;
+        });
+    }
+
+    /**
+     * @return the line logic, the exact line logic, probing and the search with every branching heuristic
+     */
+    static List<SolverStrategy> defaults() {
+        List<SolverStrategy> strategies = new ArrayList<>(List.of(lineLogic(), exactLineLogic(), probing()));
+        for (BranchingHeuristic branchingHeuristic : BranchingHeuristic.values()) {
+            strategies.add(search(branchingHeuristic));
+        }
+        return strategies;
+    }
+}
@@ -0,0 +1,294 @@
+package de.djjm.nanosolver.search;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finishes nonograms the line logic can not solve on its own: it guesses the status of an unknown cell, propagates
+ * the guess with the line logic and tries the opposite status if this leads to a contradiction.
+ * The changes of a guess are undone with the trail of the nonogram instead of copying it.
+ * <p>
+ * The same search also enumerates the solutions to count them or to check if a nonogram has exactly one solution.
+ * <p>
+ * The search stops early if the timeout is exceeded or the thread is interrupted, see {@link #isAborted()}.
+ * With a {@link Checkpointer} it writes snapshots periodically, from which a search can be resumed.
+ * <p>
+ * A running search can give away a part of its tree, see {@link #requestSplit()}. It gives away the untried second
+ * guess closest to the start, as it is the root of the largest subtree left.
+ */
+public class BacktrackingSolver {
+    private static final CellStatus FIRST_GUESS = CellStatus.FILLED;
+    private static final CellStatus SECOND_GUESS = CellStatus.EMPTY;
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+    private final long timeoutNanos;
+    private boolean aborted;
+    private Checkpointer checkpointer;
+    private BranchingHeuristic branchingHeuristic;
+    private SplitListener splitListener;
+    private final AtomicBoolean splitRequested;
+
+    public BacktrackingSolver() {
+        this(NO_TIMEOUT);
+    }
+
+    /**
+     * @param timeoutNanos the time after which a single search is aborted
+     */
+    public BacktrackingSolver(long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+        branchingHeuristic = BranchingHeuristic.MOST_CONSTRAINED_LINE;
+        splitRequested = new AtomicBoolean();
+    }
+
+    /**
+     * @return true if the last search was stopped by the timeout or an interrupt before it was finished
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @param checkpointer writes the snapshots of the searches, null to write none
+     */
+    public void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * @param branchingHeuristic chooses the cells to guess, {@link BranchingHeuristic#MOST_CONSTRAINED_LINE} by default.
+     *                           A snapshot has to be resumed with the heuristic it was taken with.
+     */
+    public void setBranchingHeuristic(BranchingHeuristic branchingHeuristic) {
+        this.branchingHeuristic = branchingHeuristic;
+    }
+
+    /**
+     * @param splitListener gets the branches given away after {@link #requestSplit()}, null to never split. A search
+     *                      which gave branches away can not be resumed from its snapshots.
+     */
+    public void setSplitListener(SplitListener splitListener) {
+        this.splitListener = splitListener;
+    }
+
+    /**
+     * asks the running search to give its largest untried branch to the split listener. The request is kept until the
+     * search has a branch to give away, it can be called by any thread.
+     */
+    public void requestSplit() {
+        splitRequested.set(true);
+    }
+
+    /**
+     * @return true if a solution was found, the nonogram then holds the solution
+     */
+    public boolean solve(Nonogram nonogram) {
+        return search(nonogram, 1, new ArrayDeque<>(), null) == 1;
+    }
+
+    /**
+     * continues the search of the snapshot
+     *
+     * @param nonogram a new nonogram with the clues of the nonogram the snapshot was taken of
+     * @return true if a solution was found, the nonogram then holds the solution
+     * @throws IllegalArgumentException if the snapshot does not belong to the nonogram
+     */
+    public boolean resume(Nonogram nonogram, SearchSnapshot snapshot) {
+        Deque<Decision> decisions = new ArrayDeque<>();
+        try {
+            snapshot.restoreStart(nonogram);
+            for (int i = 0; i < snapshot.getDepth(); i++) {
+                if (!propagate(nonogram)) {
+                    throw new IllegalArgumentException("The decisions of the snapshot lead to a contradiction");
+                }
+                Decision decision = new Decision(snapshot.getDecisionRow(i), snapshot.getDecisionColumn(i));
+                decision.secondGuessTried = snapshot.isSecondGuessTried(i);
+                decision.mark = nonogram.mark();
+                nonogram.setCellStatus(decision.row, decision.column, decision.secondGuessTried ? SECOND_GUESS : FIRST_GUESS);
+                decisions.push(decision);
+            }
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("The snapshot does not belong to the nonogram", e);
+        }
+        return search(nonogram, 1, decisions, snapshot.getStart()) == 1;
+    }
+
+    /**
+     * counts the solutions of the nonogram, but stops as soon as the limit is reached.
+     * Afterwards the nonogram holds the state the line logic can deduce without guessing.
+     *
+     * @param limit the number of solutions after which the search stops
+     * @return the number of solutions, at most limit
+     */
+    public int countSolutions(Nonogram nonogram, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit has to be at least 1, but is: " + limit);
+        }
+        if (!propagate(nonogram)) {
+            return 0;
+        }
+        int rootMark = nonogram.mark();
+        int solutions = search(nonogram, limit, new ArrayDeque<>(), null);
+        nonogram.undo(rootMark);
+        return solutions;
+    }
+
+    /**
+     * @return true if the nonogram has exactly one solution
+     */
+    public boolean isUnique(Nonogram nonogram) {
+        return countSolutions(nonogram, 2) == 1;
+    }
+
+    /**
+     * searches the solutions depth first until the limit is reached, the nonogram holds the last solution found
+     *
+     * @param decisions     the decisions already made, their guesses are set in the nonogram
+     * @param snapshotStart the state before the decisions already made, null to capture the current state
+     * @return the number of solutions found, at most limit
+     */
+    private int search(Nonogram nonogram, int limit, Deque<Decision> decisions, SearchSnapshot.Start snapshotStart) {
+        long start = System.nanoTime();
+        int solutions = 0;
+        aborted = false;
+        if (checkpointer == null) {
+            snapshotStart = null;
+        } else if (snapshotStart == null) {
+            snapshotStart = SearchSnapshot.captureStart(nonogram);
+        }
+        boolean consistent = propagate(nonogram);
+        while (true) {
+            if (System.nanoTime() - start > timeoutNanos || Thread.currentThread().isInterrupted()) {
+                aborted = true;
+                return solutions;
+            }
+            if (splitListener != null && splitRequested.get()) {
+                split(nonogram, decisions);
+            }
+            if (snapshotStart != null && checkpointer.isDue()) {
+                checkpointer.write(SearchSnapshot.of(snapshotStart, toArray(decisions)));
+            }
+            if (consistent && nonogram.isSolved()) {
+                solutions++;
+                if (solutions >= limit) {
+                    return solutions;
+                }
+                // continue with the next guess as if the solution was a contradiction
+                consistent = false;
+            }
+            if (consistent) {
+                decisions.push(decide(nonogram));
+            } else if (!backtrack(nonogram, decisions)) {
+                return solutions;
+            }
+            consistent = propagate(nonogram);
+        }
+    }
+
+    /**
+     * gives the second guess of the oldest decision, whose second guess was not tried, to the split listener. The
+     * decision is marked as tried, so the search backtracks over it.
+     */
+    private void split(Nonogram nonogram, Deque<Decision> decisions) {
+        Decision oldestOpen = null;
+        int depth = 0;
+        int i = 0;
+        // the deque iterates from the newest decision on
+        for (Decision decision : decisions) {
+            i++;
+            if (!decision.secondGuessTried) {
+                oldestOpen = decision;
+                depth = i;
+            }
+        }
+        if (oldestOpen == null) {
+            return;
+        }
+        int[] guesses = new int[3 * (decisions.size() - depth + 1)];
+        Iterator<Decision> oldestFirst = decisions.descendingIterator();
+        for (int j = 0; j < guesses.length; j += 3) {
+            Decision decision = oldestFirst.next();
+            guesses[j] = decision.row;
+            guesses[j + 1] = decision.column;
+            // decisions given away before are marked as tried, but still hold their first guess
+            CellStatus guess = decision == oldestOpen ? SECOND_GUESS : nonogram.getCellStatus(decision.row, decision.column);
+            guesses[j + 2] = guess == CellStatus.FILLED ? 1 : 0;
+        }
+        oldestOpen.secondGuessTried = true;
+        splitRequested.set(false);
+        splitListener.branchSplit(guesses);
+    }
+
+    /**
+     * @return row, column and 1 if the second guess is tried for every decision from the oldest on
+     */
+    private static int[] toArray(Deque<Decision> decisions) {
+        int[] values = new int[3 * decisions.size()];
+        int i = values.length;
+        // the deque iterates from the newest decision on
+        for (Decision decision : decisions) {
+            values[--i] = decision.secondGuessTried ? 1 : 0;
+            values[--i] = decision.column;
+            values[--i] = decision.row;
+        }
+        return values;
+    }
+
+    /**
+     * runs the line logic until the fixpoint
+     *
+     * @return false if the nonogram contains a contradiction
+     */
+    static boolean propagate(Nonogram nonogram) {
+        nonogram.trySolve();
+        if (nonogram.getContradiction() != null) {
+            return false;
+        }
+        // the line logic does not verify lines which got complete by their crossing lines
+        return !nonogram.isSolved() || nonogram.fulfillsClues();
+    }
+
+    private Decision decide(Nonogram nonogram) {
+        Decision decision = branchingHeuristic.chooseCell(nonogram);
+        decision.mark = nonogram.mark();
+        nonogram.setCellStatus(decision.row, decision.column, FIRST_GUESS);
+        return decision;
+    }
+
+    /**
+     * undoes the decisions until one is found, whose second guess was not tried, and tries it
+     *
+     * @return false if every decision was tried with both guesses
+     */
+    private static boolean backtrack(Nonogram nonogram, Deque<Decision> decisions) {
+        while (!decisions.isEmpty()) {
+            Decision decision = decisions.peek();
+            nonogram.undo(decision.mark);
+            if (!decision.secondGuessTried) {
+                decision.secondGuessTried = true;
+                decision.mark = nonogram.mark();
+                nonogram.setCellStatus(decision.row, decision.column, SECOND_GUESS);
+                return true;
+            }
+            decisions.pop();
+        }
+        return false;
+    }
+
+    static class Decision {
+        final int row;
+        final int column;
+        int mark;
+        boolean secondGuessTried;
+
+        Decision(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+    }
+}
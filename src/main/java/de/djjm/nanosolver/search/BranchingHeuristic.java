@@ -0,0 +1,93 @@
+package de.djjm.nanosolver.search;
+
+import de.djjm.nanosolver.matrix.NonoLine;
+import de.djjm.nanosolver.matrix.Nonogram;
+
+/**
+ * Chooses the unknown cell the {@link BacktrackingSolver} guesses next. Which heuristic is the fastest depends on the
+ * puzzle, so a portfolio can race several of them.
+ */
+public enum BranchingHeuristic {
+    /**
+     * the first unknown cell of the line with the fewest unknown cells
+     */
+    MOST_CONSTRAINED_LINE {
+        @Override
+        BacktrackingSolver.Decision chooseCell(Nonogram nonogram) {
+            int bestUnknown = Integer.MAX_VALUE;
+            BacktrackingSolver.Decision best = null;
+            for (int row = 0; row < nonogram.getHeight(); row++) {
+                NonoLine line = nonogram.getHorizontalLine(row);
+                int unknown = line.getCells().countUnknown();
+                if (unknown > 0 && unknown < bestUnknown) {
+                    bestUnknown = unknown;
+                    best = new BacktrackingSolver.Decision(row, line.getCells().firstUnknown());
+                }
+            }
+            for (int column = 0; column < nonogram.getWidth(); column++) {
+                NonoLine line = nonogram.getVerticalLine(column);
+                int unknown = line.getCells().countUnknown();
+                if (unknown > 0 && unknown < bestUnknown) {
+                    bestUnknown = unknown;
+                    best = new BacktrackingSolver.Decision(line.getCells().firstUnknown(), column);
+                }
+            }
+            return requireCell(best);
+        }
+    },
+    /**
+     * the unknown cell with the fewest unknown cells in its row and column together
+     */
+    MOST_CONSTRAINED_CELL {
+        @Override
+        BacktrackingSolver.Decision chooseCell(Nonogram nonogram) {
+            int[] columnUnknown = new int[nonogram.getWidth()];
+            for (int column = 0; column < columnUnknown.length; column++) {
+                columnUnknown[column] = nonogram.getVerticalLine(column).getCells().countUnknown();
+            }
+            int bestUnknown = Integer.MAX_VALUE;
+            BacktrackingSolver.Decision best = null;
+            for (int row = 0; row < nonogram.getHeight(); row++) {
+                int rowUnknown = nonogram.getHorizontalLine(row).getCells().countUnknown();
+                if (rowUnknown == 0 || rowUnknown >= bestUnknown) {
+                    continue;
+                }
+                for (int column = 0; column < columnUnknown.length; column++) {
+                    if (columnUnknown[column] > 0 && rowUnknown + columnUnknown[column] < bestUnknown
+                            && nonogram.getCellStatus(row, column).isUnknown()) {
+                        bestUnknown = rowUnknown + columnUnknown[column];
+                        best = new BacktrackingSolver.Decision(row, column);
+                    }
+                }
+            }
+            return requireCell(best);
+        }
+    },
+    /**
+     * the first unknown cell row by row
+     */
+    FIRST_UNKNOWN {
+        @Override
+        BacktrackingSolver.Decision chooseCell(Nonogram nonogram) {
+            for (int row = 0; row < nonogram.getHeight(); row++) {
+                NonoLine line = nonogram.getHorizontalLine(row);
+                if (line.getCells().countUnknown() > 0) {
+                    return new BacktrackingSolver.Decision(row, line.getCells().firstUnknown());
+                }
+            }
+            return requireCell(null);
+        }
+    };
+
+    /**
+     * @throws IllegalStateException if no cell is unknown
+     */
+    abstract BacktrackingSolver.Decision chooseCell(Nonogram nonogram);
+
+    private static BacktrackingSolver.Decision requireCell(BacktrackingSolver.Decision decision) {
+        if (decision == null) {
+            throw new IllegalStateException("There is no unknown cell left to decide on");
+        }
+        return decision;
+    }
+}
@@ -0,0 +1,117 @@
+package de.djjm.nanosolver.search;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes snapshots of a search periodically to a file. The file is written by a background thread, so the search
+ * only pays for capturing the snapshot. A snapshot is skipped while the previous one is still written.
+ * <p>
+ * Every snapshot is written to a temporary file first, which then replaces the file, so the file always holds a
+ * complete snapshot even if the process dies while writing.
+ */
+public class Checkpointer implements Closeable {
+    private final Path file;
+    private final Path temporaryFile;
+    private final long intervalNanos;
+    private final ExecutorService writer;
+    private final AtomicBoolean writing;
+    private long lastSnapshot;
+    /**
+     * the snapshots written and the failure of the last one, both are set by the writer thread
+     */
+    private final AtomicInteger written;
+    private volatile IOException failure;
+
+    /**
+     * @param intervalNanos the time between two snapshots
+     */
+    public Checkpointer(Path file, long intervalNanos) {
+        this.file = file;
+        temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        this.intervalNanos = intervalNanos;
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writing = new AtomicBoolean();
+        written = new AtomicInteger();
+        lastSnapshot = System.nanoTime();
+    }
+
+    /**
+     * @return the snapshot stored in the file
+     */
+    public static SearchSnapshot read(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return SearchSnapshot.readFrom(input);
+        }
+    }
+
+    /**
+     * @return true if the interval passed since the last snapshot and no snapshot is written at the moment
+     */
+    boolean isDue() {
+        return System.nanoTime() - lastSnapshot >= intervalNanos && !writing.get();
+    }
+
+    /**
+     * writes the snapshot in the background, unless the previous snapshot is still written
+     */
+    void write(SearchSnapshot snapshot) {
+        lastSnapshot = System.nanoTime();
+        if (!writing.compareAndSet(false, true)) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                    snapshot.writeTo(output);
+                }
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                written.incrementAndGet();
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    /**
+     * @return the number of snapshots written to the file
+     */
+    public int getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * waits until the last snapshot is written
+     *
+     * @throws IOException the exception of the last snapshot, which could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package de.djjm.nanosolver.search;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduces cells the line logic can not deduce on its own by probing: an unknown cell is set to filled and to empty
+ * one after the other and both are propagated with the line logic. If one of them leads to a contradiction, the cell
+ * and everything deduced from the other status is known. Otherwise every cell, which got the same status in both
+ * probes, is known.
+ * <p>
+ * The cells are probed in the order of the number of unknown cells in their row and column, cells of nearly finished
+ * lines first, as their probes reach a contradiction or a complete line the fastest. The probes of one round are split
+ * between several workers, each of them probes on its own copy of the nonogram and undoes every probe with the trail of
+ * its copy. The deductions of all workers are applied to the nonogram after the round, rounds are repeated until a
+ * round deduces nothing.
+ * <p>
+ * A probe is undone with the trail, only the rows the trail saved during the probe can have changed, so only they are
+ * compared. Probing stops early if the timeout is exceeded or the thread is interrupted, see {@link #isAborted()}.
+ * A contradiction is not thrown, it ends the solve, see {@link #isContradiction()}.
+ */
+public class ProbingSolver {
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+    private static final NoSolution NO_SOLUTION = new NoSolution();
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final long timeoutNanos;
+    private final LongAdder probes;
+    private final LongAdder deducedCells;
+    private long start;
+    private boolean aborted;
+    private boolean contradiction;
+
+    /**
+     * creates a solver which probes sequentially in the calling thread
+     */
+    public ProbingSolver() {
+        this(null, 1, NO_TIMEOUT);
+    }
+
+    /**
+     * creates a solver which probes sequentially in the calling thread
+     *
+     * @param timeoutNanos the time after which a single solve is aborted
+     */
+    public ProbingSolver(long timeoutNanos) {
+        this(null, 1, timeoutNanos);
+    }
+
+    /**
+     * @param executor    the executor running the workers, null to probe in the calling thread
+     * @param parallelism the number of workers, each with its own copy of the nonogram
+     */
+    public ProbingSolver(ExecutorService executor, int parallelism) {
+        this(executor, parallelism, NO_TIMEOUT);
+    }
+
+    /**
+     * @param executor     the executor running the workers, null to probe in the calling thread
+     * @param parallelism  the number of workers, each with its own copy of the nonogram
+     * @param timeoutNanos the time after which a single solve is aborted
+     */
+    public ProbingSolver(ExecutorService executor, int parallelism, long timeoutNanos) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one worker is required, but the parallelism is " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = executor == null ? 1 : parallelism;
+        this.timeoutNanos = timeoutNanos;
+        probes = new LongAdder();
+        deducedCells = new LongAdder();
+    }
+
+    /**
+     * runs the line logic and probes until nothing new can be deduced
+     *
+     * @return true if the status of every cell is known, false if nothing is left to deduce, probing was aborted or
+     * the nonogram has no solution, see {@link #isAborted()} and {@link #isContradiction()}
+     */
+    public boolean solve(Nonogram nonogram) {
+        start = System.nanoTime();
+        aborted = false;
+        contradiction = false;
+        try {
+            propagateOrThrow(nonogram);
+            while (!nonogram.isSolved()) {
+                if (isStopped()) {
+                    aborted = true;
+                    return false;
+                }
+                Deductions deductions = probeRound(nonogram);
+                if (deductions.apply(nonogram) == 0) {
+                    // a round stopped early may have missed deductions
+                    aborted = isStopped();
+                    return false;
+                }
+                propagateOrThrow(nonogram);
+            }
+            return true;
+        } catch (NoSolution e) {
+            contradiction = true;
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the last solve was stopped by the timeout or an interrupt before nothing was left to deduce
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @return true if the last solve proved that the nonogram has no solution
+     */
+    public boolean isContradiction() {
+        return contradiction;
+    }
+
+    /**
+     * @return the number of probes done by this solver
+     */
+    public long getProbeCount() {
+        return probes.sum();
+    }
+
+    /**
+     * @return the number of cells deduced by probing, without the cells the line logic deduced from them afterwards
+     */
+    public long getDeducedCellCount() {
+        return deducedCells.sum();
+    }
+
+    private boolean isStopped() {
+        return System.nanoTime() - start > timeoutNanos || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * @throws NoSolution if the nonogram or the copy of a worker contains a contradiction
+     */
+    private static void propagateOrThrow(Nonogram nonogram) {
+        if (!BacktrackingSolver.propagate(nonogram)) {
+            throw NO_SOLUTION;
+        }
+    }
+
+    private Deductions probeRound(Nonogram nonogram) {
+        int[] candidates = orderCandidates(nonogram);
+        int workers = Math.max(1, Math.min(parallelism, candidates.length));
+        if (workers == 1 || executor == null) {
+            return probeCells(new Nonogram(nonogram), candidates, 0, 1);
+        }
+        List<Callable<Deductions>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < workers; worker++) {
+            int offset = worker;
+            // the copy is created by the worker, the nonogram is not changed while the round runs
+            tasks.add(() -> probeCells(new Nonogram(nonogram), candidates, offset, workers));
+        }
+        Deductions merged = new Deductions(nonogram);
+        for (Future<Deductions> result : invokeAll(tasks)) {
+            merged.add(getResult(result));
+        }
+        return merged;
+    }
+
+    /**
+     * @return the unknown cells as row * width + column, the cells of the lines with the fewest unknown cells first
+     */
+    private static int[] orderCandidates(Nonogram nonogram) {
+        int height = nonogram.getHeight();
+        int width = nonogram.getWidth();
+        int[] rowUnknown = new int[height];
+        int[] columnUnknown = new int[width];
+        for (int row = 0; row < height; row++) {
+            rowUnknown[row] = nonogram.getHorizontalLine(row).getCells().countUnknown();
+        }
+        for (int column = 0; column < width; column++) {
+            columnUnknown[column] = nonogram.getVerticalLine(column).getCells().countUnknown();
+        }
+        // the score is stored above the cell, so sorting the longs sorts the cells by score and position
+        long[] scored = new long[height * width];
+        int count = 0;
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                if (nonogram.getCellStatus(row, column).isUnknown()) {
+                    long score = rowUnknown[row] + columnUnknown[column];
+                    scored[count++] = score << 32 | (long) row * width + column;
+                }
+            }
+        }
+        Arrays.sort(scored, 0, count);
+        int[] candidates = new int[count];
+        for (int i = 0; i < count; i++) {
+            candidates[i] = (int) scored[i];
+        }
+        return candidates;
+    }
+
+    /**
+     * probes every stride-th candidate from offset on, the deductions are applied to the copy as well, so later probes
+     * start from a state with more known cells
+     */
+    private Deductions probeCells(Nonogram copy, int[] candidates, int offset, int stride) {
+        propagateOrThrow(copy);
+        Deductions deductions = new Deductions(copy);
+        int width = copy.getWidth();
+        for (int i = offset; i < candidates.length && !isStopped(); i += stride) {
+            int row = candidates[i] / width;
+            int column = candidates[i] % width;
+            if (!copy.getCellStatus(row, column).isUnknown()) {
+                continue;
+            }
+            CellLine[] filledProbe = probe(copy, row, column, CellStatus.FILLED);
+            CellLine[] emptyProbe = probe(copy, row, column, CellStatus.EMPTY);
+            CellLine[] known;
+            if (filledProbe == null && emptyProbe == null) {
+                // the cell can neither be filled nor empty
+                throw NO_SOLUTION;
+            } else if (filledProbe == null) {
+                known = emptyProbe;
+            } else if (emptyProbe == null) {
+                known = filledProbe;
+            } else {
+                known = intersect(filledProbe, emptyProbe);
+            }
+            if (deductions.addNewCells(copy, known) > 0) {
+                deductions.apply(copy);
+                propagateOrThrow(copy);
+            }
+        }
+        return deductions;
+    }
+
+    /**
+     * @return the rows after propagating the status of the cell, null for the rows the probe did not change, or null
+     * if it leads to a contradiction
+     */
+    private CellLine[] probe(Nonogram copy, int row, int column, CellStatus status) {
+        probes.increment();
+        int mark = copy.mark();
+        copy.setCellStatus(row, column, status);
+        CellLine[] rows = null;
+        if (BacktrackingSolver.propagate(copy)) {
+            rows = new CellLine[copy.getHeight()];
+            for (int changedRow : copy.getRowsSavedSince(mark)) {
+                rows[changedRow] = new CellLine(copy.getHorizontalLine(changedRow).getCells());
+            }
+        }
+        copy.undo(mark);
+        return rows;
+    }
+
+    /**
+     * @return the rows with the cells, which have the same status in both, all other cells are unknown. A row changed
+     * by only one of the probes is null, its cells known in both are the ones known before.
+     */
+    private static CellLine[] intersect(CellLine[] first, CellLine[] second) {
+        CellLine[] rows = new CellLine[first.length];
+        for (int row = 0; row < first.length; row++) {
+            if (first[row] == null || second[row] == null) {
+                continue;
+            }
+            int wordCount = first[row].getWordCount();
+            long[] filled = new long[wordCount];
+            long[] empty = new long[wordCount];
+            for (int w = 0; w < wordCount; w++) {
+                filled[w] = first[row].getFilledWord(w) & second[row].getFilledWord(w);
+                empty[w] = first[row].getEmptyWord(w) & second[row].getEmptyWord(w);
+            }
+            rows[row] = new CellLine(first[row].getLength());
+            rows[row].setKnown(filled, empty);
+        }
+        return rows;
+    }
+
+    private List<Future<Deductions>> invokeAll(List<Callable<Deductions>> tasks) {
+        try {
+            return executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while probing", e);
+        }
+    }
+
+    /**
+     * @throws RuntimeException the exception thrown by the worker, e.g. the {@link NoSolution} of a contradiction
+     */
+    private static Deductions getResult(Future<Deductions> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while probing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * the cells deduced by probing, per row as bitsets of the filled and the empty cells
+     */
+    private class Deductions {
+        private final long[][] filled;
+        private final long[][] empty;
+
+        Deductions(Nonogram nonogram) {
+            int wordCount = CellLine.wordCount(nonogram.getWidth());
+            filled = new long[nonogram.getHeight()][wordCount];
+            empty = new long[nonogram.getHeight()][wordCount];
+        }
+
+        /**
+         * adds every cell known in the rows, but unknown in the nonogram, rows which are null are skipped
+         *
+         * @return the number of added cells
+         */
+        int addNewCells(Nonogram nonogram, CellLine[] rows) {
+            int added = 0;
+            for (int row = 0; row < rows.length; row++) {
+                if (rows[row] == null) {
+                    continue;
+                }
+                CellLine cells = nonogram.getHorizontalLine(row).getCells();
+                for (int w = 0; w < filled[row].length; w++) {
+                    long unknown = ~cells.getKnownWord(w);
+                    long newFilled = rows[row].getFilledWord(w) & unknown & ~filled[row][w];
+                    long newEmpty = rows[row].getEmptyWord(w) & unknown & ~empty[row][w];
+                    filled[row][w] |= newFilled;
+                    empty[row][w] |= newEmpty;
+                    added += Long.bitCount(newFilled) + Long.bitCount(newEmpty);
+                }
+            }
+            deducedCells.add(added);
+            return added;
+        }
+
+        void add(Deductions other) {
+            for (int row = 0; row < filled.length; row++) {
+                for (int w = 0; w < filled[row].length; w++) {
+                    filled[row][w] |= other.filled[row][w];
+                    empty[row][w] |= other.empty[row][w];
+                }
+            }
+        }
+
+        /**
+         * sets every deduced cell, which is still unknown in the nonogram
+         *
+         * @return the number of cells set
+         */
+        int apply(Nonogram nonogram) {
+            int applied = 0;
+            for (int row = 0; row < filled.length; row++) {
+                for (int w = 0; w < filled[row].length; w++) {
+                    applied += apply(nonogram, row, w, filled[row][w], CellStatus.FILLED);
+                    applied += apply(nonogram, row, w, empty[row][w], CellStatus.EMPTY);
+                }
+            }
+            return applied;
+        }
+
+        private int apply(Nonogram nonogram, int row, int w, long cells, CellStatus status) {
+            int applied = 0;
+            while (cells != 0) {
+                int column = (w << 6) + Long.numberOfTrailingZeros(cells);
+                if (nonogram.getCellStatus(row, column).isUnknown()) {
+                    nonogram.setCellStatus(row, column, status);
+                    applied++;
+                }
+                cells &= cells - 1;
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * ends a solve from inside of a round once a contradiction is found, it is caught by {@link #solve(Nonogram)} and
+     * never leaves the solver
+     */
+    private static final class NoSolution extends RuntimeException {
+        NoSolution() {
+            super("The nonogram has no solution", null, false, false);
+        }
+    }
+}
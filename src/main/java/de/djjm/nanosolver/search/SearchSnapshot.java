@@ -0,0 +1,235 @@
+package de.djjm.nanosolver.search;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The state of a search, from which it can be resumed with {@link BacktrackingSolver#resume(Nonogram, SearchSnapshot)}.
+ * <p>
+ * It holds the cells and the possible positions of the clues at the start of the search and the decisions on its
+ * stack. The state at the start is captured once per search, so a snapshot during the search only copies the
+ * decisions. Resuming restores the start and repeats the decisions, so the trail of the nonogram is rebuilt as well
+ * and the search can backtrack over the decisions made before the snapshot.
+ * <pre>
+ * magic "NONS", version
+ * height, width
+ * per row: the words of the filled cells, the words of the empty cells
+ * per row, then per column: the number of clues, the lowest start and the highest end of every clue
+ * the number of decisions, per decision from the oldest: row, column, 1 if the second guess is tried
+ * </pre>
+ */
+public final class SearchSnapshot {
+    private static final int MAGIC = 'N' << 24 | 'O' << 16 | 'N' << 8 | 'S';
+    private static final int VERSION = 1;
+    /**
+     * the largest height and width read from a snapshot, so a corrupt snapshot can not allocate huge arrays
+     */
+    private static final int MAX_SIZE = 1 << 17;
+
+    private final Start start;
+    private final int[] decisions;
+
+    private SearchSnapshot(Start start, int[] decisions) {
+        this.start = start;
+        this.decisions = decisions;
+    }
+
+    /**
+     * captures the cells and clue positions at the start of a search
+     */
+    static Start captureStart(Nonogram nonogram) {
+        int height = nonogram.getHeight();
+        int width = nonogram.getWidth();
+        long[][] filled = new long[height][];
+        long[][] empty = new long[height][];
+        for (int row = 0; row < height; row++) {
+            CellLine cells = nonogram.getHorizontalLine(row).getCells();
+            filled[row] = new long[cells.getWordCount()];
+            empty[row] = new long[cells.getWordCount()];
+            for (int w = 0; w < filled[row].length; w++) {
+                filled[row][w] = cells.getFilledWord(w);
+                empty[row][w] = cells.getEmptyWord(w);
+            }
+        }
+        int[][] cluePositions = new int[height + width][];
+        for (int row = 0; row < height; row++) {
+            cluePositions[row] = nonogram.getHorizontalLine(row).getCluePositions();
+        }
+        for (int column = 0; column < width; column++) {
+            cluePositions[height + column] = nonogram.getVerticalLine(column).getCluePositions();
+        }
+        return new Start(height, width, filled, empty, cluePositions);
+    }
+
+    /**
+     * @param decisions row, column and 1 if the second guess is tried for every decision from the oldest on
+     */
+    static SearchSnapshot of(Start start, int[] decisions) {
+        return new SearchSnapshot(start, decisions);
+    }
+
+    Start getStart() {
+        return start;
+    }
+
+    /**
+     * @return the number of decisions on the stack of the search
+     */
+    public int getDepth() {
+        return decisions.length / 3;
+    }
+
+    int getDecisionRow(int i) {
+        return decisions[3 * i];
+    }
+
+    int getDecisionColumn(int i) {
+        return decisions[3 * i + 1];
+    }
+
+    boolean isSecondGuessTried(int i) {
+        return decisions[3 * i + 2] != 0;
+    }
+
+    /**
+     * sets the cells and clue positions of the start of the search
+     *
+     * @throws IllegalArgumentException if the snapshot belongs to a nonogram of another size
+     * @throws IllegalStateException    if a cell is known with the opposite status in the nonogram
+     */
+    void restoreStart(Nonogram nonogram) {
+        if (nonogram.getHeight() != start.height || nonogram.getWidth() != start.width) {
+            throw new IllegalArgumentException("The snapshot belongs to a nonogram of the size " + start.height + "x" +
+                    start.width + ", but the nonogram is " + nonogram.getHeight() + "x" + nonogram.getWidth());
+        }
+        for (int row = 0; row < start.height; row++) {
+            for (int w = 0; w < start.filled[row].length; w++) {
+                restoreWord(nonogram, row, w, start.filled[row][w], CellStatus.FILLED);
+                restoreWord(nonogram, row, w, start.empty[row][w], CellStatus.EMPTY);
+            }
+        }
+        for (int row = 0; row < start.height; row++) {
+            nonogram.getHorizontalLine(row).restoreCluePositions(start.cluePositions[row]);
+        }
+        for (int column = 0; column < start.width; column++) {
+            nonogram.getVerticalLine(column).restoreCluePositions(start.cluePositions[start.height + column]);
+        }
+    }
+
+    private static void restoreWord(Nonogram nonogram, int row, int w, long cells, CellStatus status) {
+        while (cells != 0) {
+            nonogram.setCellStatus(row, (w << 6) + Long.numberOfTrailingZeros(cells), status);
+            cells &= cells - 1;
+        }
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(start.height);
+        data.writeInt(start.width);
+        for (int row = 0; row < start.height; row++) {
+            for (long word : start.filled[row]) {
+                data.writeLong(word);
+            }
+            for (long word : start.empty[row]) {
+                data.writeLong(word);
+            }
+        }
+        for (int[] positions : start.cluePositions) {
+            data.writeInt(positions.length / 2);
+            for (int position : positions) {
+                data.writeInt(position);
+            }
+        }
+        data.writeInt(getDepth());
+        for (int value : decisions) {
+            data.writeInt(value);
+        }
+        data.flush();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is no snapshot, or a count, a cell or an index does not fit to the
+     *                                  size of the nonogram, the snapshot is corrupt then
+     */
+    public static SearchSnapshot readFrom(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC) {
+            throw new IllegalArgumentException("The input is not a search snapshot");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("The search snapshot version " + version + " is not supported");
+        }
+        int height = readCount(data, 1, MAX_SIZE, "height");
+        int width = readCount(data, 1, MAX_SIZE, "width");
+        int wordCount = CellLine.wordCount(width);
+        // the rows are allocated while they are read, so a truncated snapshot ends before much is allocated
+        long[][] filled = new long[height][];
+        long[][] empty = new long[height][];
+        for (int row = 0; row < height; row++) {
+            filled[row] = readWords(data, wordCount);
+            empty[row] = readWords(data, wordCount);
+            for (int w = 0; w < wordCount; w++) {
+                if (((filled[row][w] | empty[row][w]) & ~CellLine.wordMask(w, width)) != 0
+                        || (filled[row][w] & empty[row][w]) != 0) {
+                    throw new IllegalArgumentException("The word " + w + " of the row " + row + " of the snapshot " +
+                            "has cells outside of the row or cells both filled and empty");
+                }
+            }
+        }
+        int[][] cluePositions = new int[height + width][];
+        for (int line = 0; line < cluePositions.length; line++) {
+            int lineLength = line < height ? width : height;
+            cluePositions[line] = new int[2 * readCount(data, 1, lineLength, "number of clues")];
+            for (int i = 0; i < cluePositions[line].length; i++) {
+                // a clue of length 0 is at -1
+                cluePositions[line][i] = readCount(data, -1, lineLength - 1, "clue position");
+            }
+        }
+        // every cell is decided at most once
+        int maxDecisions = (int) Math.min((long) height * width, Integer.MAX_VALUE / 3);
+        int[] decisions = new int[3 * readCount(data, 0, maxDecisions, "number of decisions")];
+        for (int i = 0; i < decisions.length; i += 3) {
+            decisions[i] = readCount(data, 0, height - 1, "decided row");
+            decisions[i + 1] = readCount(data, 0, width - 1, "decided column");
+            decisions[i + 2] = readCount(data, 0, 1, "second guess");
+        }
+        return new SearchSnapshot(new Start(height, width, filled, empty, cluePositions), decisions);
+    }
+
+    private static long[] readWords(DataInputStream data, int wordCount) throws IOException {
+        long[] words = new long[wordCount];
+        for (int w = 0; w < wordCount; w++) {
+            words[w] = data.readLong();
+        }
+        return words;
+    }
+
+    /**
+     * a corrupt count can be any number, which must not be used as the size of an array or as an index
+     */
+    private static int readCount(DataInputStream data, int min, int max, String description) throws IOException {
+        int count = data.readInt();
+        if (count < min || count > max) {
+            throw new IllegalArgumentException("The snapshot contains the " + description + " " + count +
+                    ", which is not between " + min + " and " + max);
+        }
+        return count;
+    }
+
+    /**
+     * the cells and clue positions at the start of a search, shared by all snapshots of the search
+     */
+    record Start(int height, int width, long[][] filled, long[][] empty, int[][] cluePositions) {
+    }
+}
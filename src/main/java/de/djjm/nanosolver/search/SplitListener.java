@@ -0,0 +1,17 @@
+package de.djjm.nanosolver.search;
+
+/**
+ * Gets the branches a {@link BacktrackingSolver} gives away after {@link BacktrackingSolver#requestSplit()}, e.g. to
+ * search them in another process.
+ */
+@FunctionalInterface
+public interface SplitListener {
+
+    /**
+     * called by the thread of the search, which will not search the branch itself
+     *
+     * @param guesses row, column and 1 if the cell is filled for every guess from the start of the search up to the
+     *                guess of the branch
+     */
+    void branchSplit(int[] guesses);
+}
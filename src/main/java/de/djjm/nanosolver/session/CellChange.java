@@ -0,0 +1,25 @@
+package de.djjm.nanosolver.session;
+
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+/**
+ * A cell whose status got known during a {@link SolveSession}
+ *
+ * @param origin who set the cell: the user, the row of the cell or the column of the cell
+ */
+public record CellChange(int row, int column, CellStatus status, Origin origin) {
+    public enum Origin {
+        /**
+         * the cell was set by {@link SolveSession#setCell(int, int, CellStatus)}
+         */
+        USER,
+        /**
+         * the row of the cell deduced it
+         */
+        ROW,
+        /**
+         * the column of the cell deduced it
+         */
+        COLUMN
+    }
+}
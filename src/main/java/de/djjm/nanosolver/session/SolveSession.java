@@ -0,0 +1,112 @@
+package de.djjm.nanosolver.session;
+
+import de.djjm.nanosolver.matrix.Contradiction;
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a nonogram at the fixpoint of the line logic while single cells are set, e.g. by the clicks of a user.
+ * Only the lines of a changed cell and the lines reached by their deductions are solved again, so the work per change
+ * depends on its consequences and not on the size of the grid.
+ * <p>
+ * Every cell which gets known is emitted as {@link CellChange} together with the line which deduced it. A change which
+ * contradicts the clues is rejected as a whole, the nonogram keeps its previous state and no event is emitted for it.
+ */
+public class SolveSession {
+    private final Nonogram nonogram;
+    private final Consumer<CellChange> events;
+    private final List<CellChange> pendingEvents;
+
+    /**
+     * solves the nonogram as far as the line logic gets, the deduced cells are already emitted
+     *
+     * @param events gets every cell which got known in the order of the deductions
+     * @throws IllegalArgumentException if the clues of the nonogram contradict each other
+     */
+    public SolveSession(Nonogram nonogram, Consumer<CellChange> events) {
+        this.nonogram = nonogram;
+        this.events = events;
+        pendingEvents = new ArrayList<>();
+        nonogram.setGridChangeListener((row, column, status, deducedByRow) ->
+                pendingEvents.add(new CellChange(row, column, status, deducedByRow ? CellChange.Origin.ROW : CellChange.Origin.COLUMN)));
+        if (!propagate()) {
+            throw new IllegalArgumentException("The clues of the nonogram contradict each other: " + describeFailure());
+        }
+        emitPendingEvents();
+    }
+
+    /**
+     * sets the status of the cell like {@link de.djjm.nanosolver.matrix.NonoLine#setCellStatus(int, CellStatus)} and
+     * deduces its consequences
+     *
+     * @return false if the cell already had the status or the status is unknown
+     * @throws IllegalArgumentException if the status contradicts the clues or the known cells, nothing is changed then
+     */
+    public boolean setCell(int row, int column, CellStatus status) {
+        if (status.isUnknown() || nonogram.getCellStatus(row, column) == status) {
+            return false;
+        }
+        int mark = nonogram.mark();
+        try {
+            nonogram.setCellStatus(row, column, status);
+        } catch (IllegalStateException e) {
+            nonogram.undo(mark);
+            throw new IllegalArgumentException("The cell " + row + "/" + column + " can not be " + status, e);
+        }
+        pendingEvents.add(new CellChange(row, column, status, CellChange.Origin.USER));
+        if (!propagate()) {
+            String failure = describeFailure();
+            nonogram.undo(mark);
+            pendingEvents.clear();
+            throw new IllegalArgumentException("The cell " + row + "/" + column + " can not be " + status + ": " + failure);
+        }
+        nonogram.commit(mark);
+        emitPendingEvents();
+        return true;
+    }
+
+    /**
+     * solves the nonogram up to the fixpoint of the line logic
+     *
+     * @return false if it contains a contradiction or got complete without fulfilling the clues
+     */
+    private boolean propagate() {
+        nonogram.trySolve();
+        if (nonogram.getContradiction() != null) {
+            return false;
+        }
+        // the line logic does not verify lines which got complete by their crossing lines
+        return !nonogram.isSolved() || nonogram.fulfillsClues();
+    }
+
+    private String describeFailure() {
+        Contradiction contradiction = nonogram.getContradiction();
+        return contradiction != null ? contradiction.toString() : "the complete grid does not fulfill the clues";
+    }
+
+    private void emitPendingEvents() {
+        for (CellChange change : pendingEvents) {
+            events.accept(change);
+        }
+        pendingEvents.clear();
+    }
+
+    public CellStatus getCellStatus(int row, int column) {
+        return nonogram.getCellStatus(row, column);
+    }
+
+    /**
+     * @return true if the status of every cell is known
+     */
+    public boolean isSolved() {
+        return nonogram.isSolved();
+    }
+
+    public Nonogram getNonogram() {
+        return nonogram;
+    }
+}
@@ -0,0 +1,74 @@
+package de.djjm.nanosolver.batch;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.SolverListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchSolverTest {
+    private static final long TIMEOUT_NANOS = 10_000_000_000L;
+    /**
+     * the filled row can not be fulfilled by the empty columns
+     */
+    private static final Puzzle CONTRADICTING = new Puzzle("contradicting", new int[][]{{2}, {0}}, new int[][]{{0}, {0}});
+
+    @Test
+    void reportsProvenContradiction() {
+        BatchSolver solver = new BatchSolver(1, true, TIMEOUT_NANOS);
+        assertEquals(SolveStatus.CONTRADICTION, solver.solve(CONTRADICTING).status());
+    }
+
+    /**
+     * a line needs a single 0 if it has no clues, without any clue the nonogram can not be created
+     */
+    @Test
+    void reportsPuzzleWithoutNonogramAsInvalid() {
+        BatchSolver solver = new BatchSolver(1, true, TIMEOUT_NANOS);
+        assertEquals(SolveStatus.INVALID, solver.solve(new Puzzle("no clue", new int[][]{{}}, new int[][]{{0}})).status());
+    }
+
+    /**
+     * an IllegalStateException which is no proof of a contradiction is a failure of the solver
+     */
+    @Test
+    void reportsUnexpectedIllegalStateAsError() {
+        SolveResult result = solveWithFailingListener(new IllegalStateException("listener failed"));
+        assertEquals(SolveStatus.ERROR, result.status());
+        assertEquals("java.lang.IllegalStateException: listener failed", result.message());
+    }
+
+    /**
+     * an IllegalArgumentException while solving is a failure of the solver, not of the puzzle
+     */
+    @Test
+    void reportsIllegalArgumentWhileSolvingAsError() {
+        SolveResult result = solveWithFailingListener(new IllegalArgumentException("listener failed"));
+        assertEquals(SolveStatus.ERROR, result.status());
+        assertEquals("java.lang.IllegalArgumentException: listener failed", result.message());
+    }
+
+    private static SolveResult solveWithFailingListener(RuntimeException failure) {
+        BatchSolver solver = new BatchSolver(1, true, TIMEOUT_NANOS);
+        solver.setSolverListener(new SolverListener() {
+            @Override
+            public void iterationFinished(int linesSolved, int linesChanged, long syncNanos) {
+                throw failure;
+            }
+        });
+        return solver.solve(new Puzzle("cross", new int[][]{{1}, {3}, {1}}, new int[][]{{1}, {3}, {1}}));
+    }
+
+    @Test
+    void formatsTimeIndependentOfDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertEquals("p\tSOLVED\t1.500", new SolveResult("p", SolveStatus.SOLVED, 1_500_000).toString());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.io.Puzzle;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributedSearchTest {
+    /**
+     * an invalid puzzle is rejected by the coordinator, so the worker stays connected and searches the next puzzle
+     */
+    @Test
+    void invalidPuzzleKeepsTheWorkers() throws Exception {
+        try (DistributedSearch search = new DistributedSearch(InetAddress.getLoopbackAddress(), 0)) {
+            Thread worker = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), search.getPort())) {
+                    new SearchWorker(socket).run();
+                } catch (IOException | InterruptedException e) {
+                    // the test fails on the side of the coordinator
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+            search.awaitWorkers(1);
+
+            Puzzle invalid = new Puzzle("invalid", new int[][]{{1, 1, 1}, {0}, {0}}, new int[][]{{1}, {0}, {1}});
+            assertThrows(IllegalArgumentException.class, () -> search.solve(invalid));
+
+            DistributedResult result = search.solve(new Puzzle("cross", new int[][]{{1}, {3}, {1}}, new int[][]{{1}, {3}, {1}}));
+            assertTrue(result.isSolved());
+            assertEquals(1, search.getWorkerCount());
+        }
+    }
+
+    /**
+     * a solution which does not fulfill the clues ends the search as a failure instead of throwing, so the next puzzle
+     * can still be searched
+     */
+    @Test
+    void wrongSolutionIsReportedAsFailure() throws Exception {
+        try (DistributedSearch search = new DistributedSearch(InetAddress.getLoopbackAddress(), 0)) {
+            Thread worker = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), search.getPort())) {
+                    DataInputStream input = new DataInputStream(socket.getInputStream());
+                    DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+                    output.writeInt(Protocol.MAGIC);
+                    output.writeInt(Protocol.VERSION);
+                    output.flush();
+                    assertEquals(Protocol.TASK, input.readByte());
+                    Subproblem.readFrom(input);
+                    // every cell of the solution is empty
+                    output.writeByte(Protocol.DONE);
+                    output.writeBoolean(true);
+                    output.writeInt(3);
+                    for (int row = 0; row < 3; row++) {
+                        output.writeInt(1);
+                        output.writeLong(0);
+                    }
+                    output.flush();
+                    while (input.readByte() != Protocol.SHUTDOWN) ;
+                } catch (EOFException e) {
+                    // the coordinator closed the connection
+                } catch (IOException e) {
+                    // the test fails on the side of the coordinator
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+            search.awaitWorkers(1);
+
+            DistributedResult result = search.solve(new Puzzle("cross", new int[][]{{1}, {3}, {1}}, new int[][]{{1}, {3}, {1}}));
+            assertFalse(result.isSolved());
+            assertTrue(result.isFailed());
+            assertEquals(1, search.getWorkerCount());
+        }
+    }
+}
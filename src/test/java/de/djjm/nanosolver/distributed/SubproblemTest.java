@@ -0,0 +1,103 @@
+package de.djjm.nanosolver.distributed;
+
+import de.djjm.nanosolver.io.Puzzle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SubproblemTest {
+    private static final Puzzle PUZZLE = new Puzzle("p", new int[][]{{1, 1}, {0}, {3}}, new int[][]{{2}, {1}, {2}});
+
+    @Test
+    void readsWrittenSubproblem() throws IOException {
+        Subproblem subproblem = Subproblem.of(PUZZLE).branch(new int[]{2, 1, 1, 1, 0, 0});
+        byte[] bytes = write(subproblem);
+
+        Subproblem read = Subproblem.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+        assertEquals(2, read.getDepth());
+        assertArrayEquals(bytes, write(read));
+    }
+
+    /**
+     * a line without clues is sent as a single 0 and read back into a nonogram, a line with no clue at all is rejected
+     * when it is read like it is rejected before it is sent
+     */
+    @Test
+    void readsLineWithoutClues() throws IOException {
+        Puzzle puzzle = new Puzzle("empty", new int[][]{{0}, {2}}, new int[][]{{1}, {1}});
+        byte[] bytes = write(Subproblem.of(puzzle));
+        Subproblem read = Subproblem.readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+        assertArrayEquals(bytes, write(read));
+        assertEquals(puzzle.toNonogram().toString(), read.toNonogram().toString());
+
+        // 2 rows of width 2, the first row has no clue
+        assertRejected(2, 2, 0, 1, 2);
+    }
+
+    /**
+     * the counts are checked before anything is allocated, the indices before they are used
+     */
+    @Test
+    void rejectsCountsNotFittingTheSize() throws IOException {
+        // height, width, then the clues: 3 rows of width 3 can have at most 2 clues of at most 3 cells
+        assertRejected(-1, 3);
+        assertRejected(3, Integer.MAX_VALUE);
+        assertRejected(3, 3, 1 << 30);
+        assertRejected(3, 3, 1, 4);
+        // the number of guesses and a guess outside of the grid
+        assertRejected(concat(clues(), 10));
+        assertRejected(concat(clues(), 1, 3, 0, 1));
+        assertRejected(concat(clues(), 1, 0, 0, 2));
+    }
+
+    /**
+     * a puzzle the workers would reject as a corrupt message is rejected before it is sent
+     */
+    @Test
+    void rejectsPuzzlesTheWorkersCanNotRead() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Subproblem.of(new Puzzle("x", new int[][]{{1, 1, 1}, {0}, {0}}, new int[][]{{1}, {0}, {1}})));
+        assertThrows(IllegalArgumentException.class,
+                () -> Subproblem.of(new Puzzle("x", new int[][]{{4}, {0}, {0}}, new int[][]{{1}, {0}, {1}})));
+        assertThrows(IllegalArgumentException.class,
+                () -> Subproblem.of(new Puzzle("x", new int[][]{{}, {0}, {0}}, new int[][]{{1}, {0}, {1}})));
+        assertThrows(IllegalArgumentException.class, () -> Subproblem.of(new Puzzle("x", new int[0][], new int[][]{{0}})));
+    }
+
+    private static int[] clues() {
+        return new int[]{3, 3, 2, 1, 1, 1, 0, 1, 3, 1, 2, 1, 1, 1, 2};
+    }
+
+    private static int[] concat(int[] first, int... second) {
+        int[] values = new int[first.length + second.length];
+        System.arraycopy(first, 0, values, 0, first.length);
+        System.arraycopy(second, 0, values, first.length, second.length);
+        return values;
+    }
+
+    private static void assertRejected(int... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        for (int value : values) {
+            output.writeInt(value);
+        }
+        // enough zeros behind the values, so only the validation can fail
+        output.write(new byte[1024]);
+        assertThrows(IOException.class,
+                () -> Subproblem.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    private static byte[] write(Subproblem subproblem) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        subproblem.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
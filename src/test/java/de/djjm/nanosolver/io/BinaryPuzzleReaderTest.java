@@ -0,0 +1,120 @@
+package de.djjm.nanosolver.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryPuzzleReaderTest {
+    private static final int HEADER_SIZE = BinaryPuzzleWriter.MAGIC.length + 1;
+
+    @Test
+    void readsWrittenPuzzles() throws IOException {
+        Puzzle puzzle = new Puzzle("cross", new int[][]{{1}, {3}, {1}}, new int[][]{{1}, {3}, {1}});
+        try (PuzzleReader reader = new BinaryPuzzleReader(new ByteArrayInputStream(write(puzzle)))) {
+            Puzzle read = reader.next();
+            assertEquals("cross", read.name());
+            assertArrayEquals(puzzle.horizontalClues(), read.horizontalClues());
+            assertArrayEquals(puzzle.verticalClues(), read.verticalClues());
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     * a varint of 5 bytes can decode to a negative number, the record has to be rejected like any other invalid one
+     */
+    @Test
+    void rejectsNegativeCount() throws IOException {
+        byte[] valid = write(new Puzzle("valid", new int[][]{{1}}, new int[][]{{1}}));
+        ByteArrayOutputStream corrupt = new ByteArrayOutputStream();
+        corrupt.write(valid, 0, HEADER_SIZE);
+        corrupt.write(new byte[]{1, 'x', (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        try (PuzzleReader reader = new BinaryPuzzleReader(new ByteArrayInputStream(corrupt.toByteArray()))) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+        }
+    }
+
+    /**
+     * the counts are bounded by the size of the puzzle, so a corrupt count does not allocate a huge array, and the
+     * puzzles behind the corrupt record are not read
+     */
+    @Test
+    void rejectsCountsNotFittingTheSize() throws IOException {
+        // name, height 2, width 2, then a row with 3 clues, which is more than its length
+        assertRejected(new byte[]{1, 'x', 2, 2, 3, 1, 1, 1});
+        // a height bigger than the maximal size
+        assertRejected(new byte[]{1, 'x', (byte) 0x80, (byte) 0x80, 0x10, 1});
+        // the input ends inside of the record
+        assertRejected(new byte[]{1, 'x', 2, 2, 1});
+    }
+
+    /**
+     * a record which is read completely, but whose clues do not fit into their lines, is rejected and the reader
+     * continues with the next record
+     */
+    @Test
+    void skipsPuzzlesWhoseCluesDoNotFit() throws IOException {
+        byte[] valid = write(new Puzzle("valid", new int[][]{{1}}, new int[][]{{1}}));
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(valid, 0, HEADER_SIZE);
+        // height 3, width 3, the rows 1 1 1, 0 and 0, the columns 1, 0 and 1
+        input.write(new byte[]{1, 'x', 3, 3, 3, 1, 1, 1, 0, 0, 1, 1, 0, 1, 1});
+        // height 2, width 2, a clue longer than its row
+        input.write(new byte[]{1, 'y', 2, 2, 1, 3, 0, 0, 0});
+        input.write(valid, HEADER_SIZE, valid.length - HEADER_SIZE);
+        try (PuzzleReader reader = new BinaryPuzzleReader(new ByteArrayInputStream(input.toByteArray()))) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+            assertThrows(IllegalArgumentException.class, reader::next);
+            assertEquals("valid", reader.next().name());
+            assertNull(reader.next());
+        }
+    }
+
+    /**
+     * the writer rejects every puzzle the reader would reject, so the puzzles written behind it can be read
+     */
+    @Test
+    void writerRejectsPuzzlesTheReaderRejects() throws IOException {
+        Puzzle notFitting = new Puzzle("x", new int[][]{{1, 1, 1}, {0}, {0}}, new int[][]{{1}, {0}, {1}});
+        Puzzle empty = new Puzzle("empty", new int[0][], new int[][]{{0}});
+        Puzzle longName = new Puzzle("n".repeat(BinaryPuzzleReader.MAX_NAME_LENGTH + 1), new int[][]{{1}}, new int[][]{{1}});
+        Puzzle valid = new Puzzle("valid", new int[][]{{1}}, new int[][]{{1}});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PuzzleWriter writer = PuzzleFormat.BINARY.create(output)) {
+            for (Puzzle rejected : new Puzzle[]{notFitting, empty, longName}) {
+                assertThrows(IllegalArgumentException.class, () -> writer.write(rejected));
+            }
+            writer.write(valid);
+        }
+        try (PuzzleReader reader = new BinaryPuzzleReader(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals("valid", reader.next().name());
+            assertNull(reader.next());
+        }
+    }
+
+    private static void assertRejected(byte[] record) throws IOException {
+        byte[] valid = write(new Puzzle("valid", new int[][]{{1}}, new int[][]{{1}}));
+        ByteArrayOutputStream corrupt = new ByteArrayOutputStream();
+        corrupt.write(valid, 0, HEADER_SIZE);
+        corrupt.write(record);
+        corrupt.write(valid, HEADER_SIZE, valid.length - HEADER_SIZE);
+        try (PuzzleReader reader = new BinaryPuzzleReader(new ByteArrayInputStream(corrupt.toByteArray()))) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+            assertNull(reader.next());
+        }
+    }
+
+    private static byte[] write(Puzzle puzzle) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PuzzleWriter writer = PuzzleFormat.BINARY.create(output)) {
+            writer.write(puzzle);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,24 @@
+package de.djjm.nanosolver.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LinePuzzleReaderTest {
+    /**
+     * a number bigger than an int is rejected instead of overflowing, the reader continues with the next line
+     */
+    @Test
+    void rejectsNumberOverflow() throws IOException {
+        try (PuzzleReader reader = new LinePuzzleReader(new StringReader("big;1,4294967297;1,1\ncross;1,3,1;1,3,1\n"))) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+            assertEquals("cross", reader.next().name());
+            assertNull(reader.next());
+        }
+    }
+}
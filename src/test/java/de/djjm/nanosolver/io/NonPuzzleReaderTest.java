@@ -0,0 +1,34 @@
+package de.djjm.nanosolver.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NonPuzzleReaderTest {
+    @Test
+    void readsRowsAndColumns() throws IOException {
+        String input = "title \"cross\"\nwidth 3\nheight 3\nrows\n1\n3\n1\ncolumns\n1\n3\n1\n";
+        try (PuzzleReader reader = new NonPuzzleReader(new StringReader(input))) {
+            Puzzle puzzle = reader.next();
+            assertArrayEquals(new int[][]{{1}, {3}, {1}}, puzzle.horizontalClues());
+            assertArrayEquals(new int[][]{{1}, {3}, {1}}, puzzle.verticalClues());
+        }
+    }
+
+    /**
+     * the height and width are the number of lines to allocate, so they are bounded before the clues are read
+     */
+    @Test
+    void rejectsHugeSize() throws IOException {
+        for (String dimension : new String[]{"height", "width"}) {
+            String input = dimension + " 2000000000\nrows\n";
+            try (PuzzleReader reader = new NonPuzzleReader(new StringReader(input))) {
+                assertThrows(IllegalArgumentException.class, reader::next);
+            }
+        }
+    }
+}
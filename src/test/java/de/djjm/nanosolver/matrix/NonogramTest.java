@@ -0,0 +1,112 @@
+package de.djjm.nanosolver.matrix;
+
+import de.djjm.nanosolver.generator.PuzzleGenerator;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonogramTest {
+    private static final int PROBED_CELLS = 150;
+
+    /**
+     * a random puzzle the line logic can not finish, its 70 columns lie in two blocks
+     */
+    private static Nonogram stalledPuzzle() {
+        return new PuzzleGenerator(23).random(0, new int[]{40, 40}, new int[]{70, 70}, 0.5).toNonogram();
+    }
+
+    /**
+     * the lines of a parallel step deduce cells until one of them contradicts its clues, every deduced cell is seen by
+     * the rows and the columns until the mark is undone
+     */
+    @Test
+    void undoAfterContradictionInParallelStepRestoresRowsAndColumns() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Nonogram nonogram = stalledPuzzle();
+            nonogram.setExecutor(executor);
+            assertFalse(nonogram.trySolve());
+            String before = nonogram.toString();
+            int contradictions = 0;
+            int probed = 0;
+            for (int cell = 0; cell < nonogram.getHeight() * nonogram.getWidth() && probed < PROBED_CELLS; cell++) {
+                int row = cell / nonogram.getWidth();
+                int column = cell % nonogram.getWidth();
+                if (!nonogram.getCellStatus(row, column).isUnknown()) {
+                    continue;
+                }
+                probed++;
+                for (CellStatus status : new CellStatus[]{CellStatus.FILLED, CellStatus.EMPTY}) {
+                    int mark = nonogram.mark();
+                    nonogram.setCellStatus(row, column, status);
+                    nonogram.trySolve();
+                    if (nonogram.getContradiction() != null) {
+                        contradictions++;
+                    }
+                    nonogram.undo(mark);
+                    assertEquals(before, nonogram.toString(), row + "/" + column + " " + status);
+                    assertTrue(nonogram.getCellStatus(row, column).isUnknown());
+                    assertEquals(nonogram.getHorizontalLine(row).getCells().getStatus(column),
+                            nonogram.getVerticalLine(column).getCells().getStatus(row));
+                }
+            }
+            assertTrue(contradictions > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * after a decision the columns deduce cells of rows, which did not change by themselves before. Those rows are saved
+     * since the mark and undoing the mark restores them.
+     */
+    @Test
+    void undoRestoresCellsDeducedByColumns() {
+        Nonogram nonogram = stalledPuzzle();
+        assertFalse(nonogram.trySolve());
+        String before = nonogram.toString();
+        String[] rowsBefore = rows(nonogram);
+        int decidedRow = -1;
+        int deducedRows = 0;
+        for (int cell = 0; cell < nonogram.getHeight() * nonogram.getWidth() && deducedRows == 0; cell++) {
+            int row = cell / nonogram.getWidth();
+            int column = cell % nonogram.getWidth();
+            if (!nonogram.getCellStatus(row, column).isUnknown()) {
+                continue;
+            }
+            int mark = nonogram.mark();
+            nonogram.setCellStatus(row, column, CellStatus.FILLED);
+            nonogram.trySolve();
+            String[] rowsAfter = rows(nonogram);
+            List<Integer> savedRows = Arrays.stream(nonogram.getRowsSavedSince(mark)).boxed().toList();
+            for (int r = 0; r < rowsAfter.length; r++) {
+                if (!rowsAfter[r].equals(rowsBefore[r])) {
+                    assertTrue(savedRows.contains(r), "row " + r);
+                    if (r != row) {
+                        deducedRows++;
+                    }
+                }
+            }
+            decidedRow = row;
+            nonogram.undo(mark);
+            assertEquals(before, nonogram.toString());
+        }
+        assertTrue(deducedRows > 0, "no cell of another row than " + decidedRow + " was deduced");
+    }
+
+    private static String[] rows(Nonogram nonogram) {
+        String[] rows = new String[nonogram.getHeight()];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = nonogram.getHorizontalLine(row).getCells().toString();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,85 @@
+package de.djjm.nanosolver.matrix.cell;
+
+import de.djjm.nanosolver.generator.PuzzleGenerator;
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.Nonogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CellGridTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void invalidSizeCreatesNoFile() {
+        Path file = directory.resolve("grid.bin");
+        assertThrows(IllegalArgumentException.class, () -> CellGrid.map(file, -1, 10));
+        assertFalse(Files.exists(file));
+    }
+
+    /**
+     * the cells written through the views are read back from the file, whose header and words are big-endian
+     */
+    @Test
+    void mappedFileKeepsTheCells() throws IOException {
+        Path file = directory.resolve("grid.bin");
+        try (CellGrid grid = CellGrid.map(file, 3, 70)) {
+            grid.row(0).setCellStatus(0, CellStatus.FILLED);
+            grid.row(0).setCellStatus(65, CellStatus.EMPTY);
+            grid.column(69).setCellStatus(2, CellStatus.FILLED);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(3, bytes.getInt(8));
+        assertEquals(70, bytes.getInt(12));
+        // row 0 holds its 2 filled words and then its 2 empty words
+        assertEquals(1L, bytes.getLong(16));
+        assertEquals(1L << 1, bytes.getLong(16 + 3 * Long.BYTES));
+        assertEquals(1L << 5, bytes.getLong(16 + 9 * Long.BYTES));
+
+        try (CellGrid grid = CellGrid.map(file, 3, 70)) {
+            assertEquals(CellStatus.FILLED, grid.getStatus(0, 0));
+            assertEquals(CellStatus.EMPTY, grid.column(65).getStatus(0));
+            assertEquals(CellStatus.FILLED, grid.row(2).getStatus(69));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CellGrid.map(file, 70, 3));
+    }
+
+    /**
+     * the lines of a grid outside of the heap deduce the same cells as the lines on the heap, and a nonogram on a
+     * mapped file continues with the cells deduced before
+     */
+    @Test
+    void nonogramSolvesOutsideOfTheHeap() throws IOException {
+        Puzzle puzzle = new PuzzleGenerator(16).random(0, new int[]{30, 30}, new int[]{130, 130}, 0.55);
+        Nonogram onHeap = puzzle.toNonogram();
+        onHeap.trySolve();
+
+        Nonogram direct = puzzle.toNonogram(CellGrid.allocateDirect(30, 130));
+        direct.trySolve();
+        assertEquals(onHeap.toString(), direct.toString());
+
+        Path file = directory.resolve("grid.bin");
+        try (CellGrid grid = CellGrid.map(file, 30, 130)) {
+            puzzle.toNonogram(grid).trySolve();
+        }
+        try (CellGrid grid = CellGrid.map(file, 30, 130)) {
+            Nonogram resumed = puzzle.toNonogram(grid);
+            for (int row = 0; row < 30; row++) {
+                assertEquals(onHeap.getHorizontalLine(row).getCells().toString(),
+                        resumed.getHorizontalLine(row).getCells().toString());
+            }
+            resumed.trySolve();
+            assertEquals(onHeap.toString(), resumed.toString());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package de.djjm.nanosolver.matrix.cell;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class OverlapKernelTest {
+    private static final OverlapKernel[] KERNELS = {OverlapKernel.SCALAR, OverlapKernel.best()};
+
+    /**
+     * the tests run with the incubator module, so both kernels are covered
+     */
+    @Test
+    void vectorKernelIsAvailable() {
+        assertNotSame(OverlapKernel.SCALAR, OverlapKernel.best());
+    }
+
+    /**
+     * compares the kernels with setting the cells one after the other, on lines with and without a tail behind the
+     * last full vector
+     */
+    @Test
+    void kernelsMatchSettingEveryCell() {
+        SplittableRandom random = new SplittableRandom(14);
+        for (int n = 0; n < 20_000; n++) {
+            int length = 1 + random.nextInt(600);
+            CellLine line = randomLine(random, length);
+            long[] required = new long[CellLine.wordCount(length)];
+            long[] reachable = new long[CellLine.wordCount(length)];
+            for (int i = 0; i < length; i++) {
+                int kind = random.nextInt(4);
+                if (kind == 0 && !line.isEmpty(i)) {
+                    required[CellLine.wordIndex(i)] |= 1L << i;
+                }
+                if (kind != 1) {
+                    reachable[CellLine.wordIndex(i)] |= 1L << i;
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                int conflict = random.nextInt(length);
+                if (line.isFilled(conflict)) {
+                    continue;
+                }
+                line.setCellStatus(conflict, CellStatus.EMPTY);
+                required[CellLine.wordIndex(conflict)] |= 1L << conflict;
+            }
+
+            String expected = expectedLine(line, required, reachable);
+            for (OverlapKernel kernel : KERNELS) {
+                CellLine applied = new CellLine(line);
+                int result = applied.tryApplyOverlap(required.clone(), reachable.clone(), kernel);
+                if (expected == null) {
+                    assertEquals(OverlapKernel.CONFLICT, result, kernel.toString());
+                    assertEquals(line.toString(), applied.toString(), kernel.toString());
+                } else {
+                    assertEquals(expected.equals(line.toString()) ? OverlapKernel.UNCHANGED : OverlapKernel.CHANGED, result,
+                            kernel.toString());
+                    assertEquals(expected, applied.toString(), kernel.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * the conflict is returned, the first required empty cell is found afterwards and the line is left as it was
+     */
+    @Test
+    void conflictLeavesTheLineUnchanged() {
+        for (OverlapKernel kernel : KERNELS) {
+            CellLine line = new CellLine(300);
+            line.setCellStatus(0, CellStatus.EMPTY);
+            line.setCellStatus(2, CellStatus.FILLED);
+            line.setCellStatus(299, CellStatus.EMPTY);
+            String before = line.toString();
+            long[] required = new long[line.getWordCount()];
+            long[] reachable = new long[line.getWordCount()];
+            CellLine.setRange(required, 1, line.getLength() - 1);
+            CellLine.setRange(reachable, 0, line.getLength() - 1);
+
+            assertEquals(OverlapKernel.CONFLICT, line.tryApplyOverlap(required, reachable, kernel), kernel.toString());
+            assertEquals(line.getLength() - 1, line.firstConflict(required), kernel.toString());
+            assertEquals(before, line.toString(), kernel.toString());
+        }
+    }
+
+    private static CellLine randomLine(SplittableRandom random, int length) {
+        CellLine line = new CellLine(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(4)) {
+                case 0 -> line.setCellStatus(i, CellStatus.FILLED);
+                case 1 -> line.setCellStatus(i, CellStatus.EMPTY);
+                default -> {
+                }
+            }
+        }
+        return line;
+    }
+
+    /**
+     * @return the symbols of the line after the overlap is applied cell by cell or null on a conflict
+     */
+    private static String expectedLine(CellLine line, long[] required, long[] reachable) {
+        StringBuilder expected = new StringBuilder(line.getLength());
+        for (int i = 0; i < line.getLength(); i++) {
+            boolean isRequired = (required[CellLine.wordIndex(i)] & 1L << i) != 0;
+            boolean isReachable = (reachable[CellLine.wordIndex(i)] & 1L << i) != 0;
+            CellStatus status = line.getStatus(i);
+            if (isRequired && status == CellStatus.EMPTY) {
+                return null;
+            }
+            if (isRequired) {
+                status = CellStatus.FILLED;
+            } else if (!isReachable && status == CellStatus.UNKNOWN) {
+                status = CellStatus.EMPTY;
+            }
+            expected.append(status.getSymbol());
+        }
+        return expected.toString();
+    }
+}
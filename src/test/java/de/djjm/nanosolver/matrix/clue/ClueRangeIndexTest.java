@@ -0,0 +1,87 @@
+package de.djjm.nanosolver.matrix.clue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClueRangeIndexTest {
+
+    /**
+     * compares the index with asking every clue whether it can contain the cell, after a rebuild and after clues were
+     * narrowed to cells only they can contain
+     */
+    @Test
+    void findsTheCluesWhichCanContainACell() {
+        SplittableRandom random = new SplittableRandom(19);
+        for (int n = 0; n < 20_000; n++) {
+            int length = 1 + random.nextInt(40);
+            ClueRanges clues = randomOrderedRanges(random, length);
+            ClueRangeIndex index = new ClueRangeIndex(length);
+            index.rebuild(clues);
+            assertMatchesClues(index, clues, length);
+
+            for (int narrowing = 0; narrowing < 5; narrowing++) {
+                int cell = random.nextInt(length);
+                int clue = firstClue(clues, cell);
+                if (clue == ClueRangeIndex.NO_CLUE || clue != lastClue(clues, cell)) {
+                    continue;
+                }
+                int lowestStart = clues.getLowestStart(clue);
+                int highestEnd = clues.getHighestEnd(clue);
+                if (clues.needsToContainCell(clue, cell)) {
+                    index.narrowed(clue, lowestStart, highestEnd, clues.getLowestStart(clue), clues.getHighestEnd(clue));
+                }
+                assertMatchesClues(index, clues, length);
+            }
+        }
+    }
+
+    /**
+     * @return clues whose lowest starts and highest ends grow with their index, like the positions of a line
+     */
+    private static ClueRanges randomOrderedRanges(SplittableRandom random, int length) {
+        int count = 1 + random.nextInt(Math.min(length, 8));
+        int[] lowestStarts = random.ints(count, 0, length).sorted().toArray();
+        int[] highestEnds = new int[count];
+        int[] lengths = new int[count];
+        int previousEnd = 0;
+        for (int clue = 0; clue < count; clue++) {
+            int width = random.nextInt(length - lowestStarts[clue]);
+            highestEnds[clue] = Math.max(previousEnd, lowestStarts[clue] + width);
+            previousEnd = highestEnds[clue];
+            lengths[clue] = 1 + random.nextInt(highestEnds[clue] - lowestStarts[clue] + 1);
+        }
+        ClueRanges clues = new ClueRanges(lengths, length);
+        for (int clue = 0; clue < count; clue++) {
+            clues.restorePositions(clue, lowestStarts[clue], highestEnds[clue]);
+        }
+        return clues;
+    }
+
+    private static void assertMatchesClues(ClueRangeIndex index, ClueRanges clues, int length) {
+        for (int cell = 0; cell < length; cell++) {
+            assertEquals(firstClue(clues, cell), index.getFirstClue(cell), "first clue of cell " + cell);
+            assertEquals(lastClue(clues, cell), index.getLastClue(cell), "last clue of cell " + cell);
+        }
+    }
+
+    private static int firstClue(ClueRanges clues, int cell) {
+        for (int clue = 0; clue < clues.size(); clue++) {
+            if (clues.canContain(clue, cell)) {
+                return clue;
+            }
+        }
+        return ClueRangeIndex.NO_CLUE;
+    }
+
+    private static int lastClue(ClueRanges clues, int cell) {
+        for (int clue = clues.size() - 1; clue >= 0; clue--) {
+            if (clues.canContain(clue, cell)) {
+                return clue;
+            }
+        }
+        return ClueRangeIndex.NO_CLUE;
+    }
+}
@@ -0,0 +1,222 @@
+package de.djjm.nanosolver.matrix.clue;
+
+import de.djjm.nanosolver.matrix.NonoLine;
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+import de.djjm.nanosolver.matrix.solver.DynamicLineSolver;
+import de.djjm.nanosolver.matrix.solver.LineSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClueRangesTest {
+    private static final int NO_FIT = Integer.MIN_VALUE;
+    private static final CellStatus[] STATUSES = CellStatus.values();
+
+    /**
+     * compares the position search with the sweep over a list of the statuses it replaced
+     */
+    @Test
+    void positionSearchMatchesStatusListSweep() {
+        SplittableRandom random = new SplittableRandom(10);
+        for (int n = 0; n < 200_000; n++) {
+            CellLine cells = randomLine(random, 1 + random.nextInt(24));
+            int length = cells.getLength();
+            int clueLength = 1 + random.nextInt(length);
+            int start = random.nextInt(length);
+
+            ClueRanges up = new ClueRanges(new int[]{clueLength}, length);
+            int expectedStart = statusListSweep(cells, clueLength, ClueRanges.GO_UP, start);
+            boolean fits = up.calculateLowestPosition(0, start, cells);
+            assertEquals(expectedStart, fits ? up.getLowestStart(0) : NO_FIT, () -> "lowest start of " + clueLength +
+                    " from " + start + " in I" + cells + "I");
+
+            ClueRanges down = new ClueRanges(new int[]{clueLength}, length);
+            int expectedEnd = statusListSweep(cells, clueLength, ClueRanges.GO_DOWN, start);
+            fits = down.calculateHighestPosition(0, start, cells);
+            assertEquals(expectedEnd, fits ? down.getHighestEnd(0) : NO_FIT, () -> "highest end of " + clueLength +
+                    " from " + start + " in I" + cells + "I");
+        }
+    }
+
+    @Test
+    void emptyClueIsPlacedBeforeTheLine() {
+        ClueRanges clues = new ClueRanges(new int[]{0}, 5);
+        assertTrue(clues.isPlaced(0));
+        assertEquals(-1, clues.getLowestStart(0));
+        assertEquals(-1, clues.getHighestEnd(0));
+        clues.restorePositions(0, 2, 3);
+        assertEquals(-1, clues.getLowestStart(0));
+    }
+
+    @Test
+    void placedClueIsNeitherNarrowedNorMarked() {
+        ClueRanges clues = new ClueRanges(new int[]{3}, 10);
+        clues.restorePositions(0, 2, 4);
+        assertTrue(clues.isPlaced(0));
+        assertFalse(clues.needsToContainCell(0, 3));
+        long[] required = new long[1];
+        assertTrue(clues.markRequiredCells(0, required));
+        assertEquals(0L, required[0]);
+        assertTrue(clues.calculateLowestPosition(0, new CellLine(10)));
+        assertEquals(2, clues.getLowestStart(0));
+    }
+
+    @Test
+    void clueIsPlacedWhenItFitsExactly() {
+        ClueRanges clues = new ClueRanges(new int[]{2, 3}, 10);
+        clues.needsToContainCell(1, 5);
+        clues.checkPlaced();
+        assertFalse(clues.isPlaced(1));
+        clues.needsToContainCell(1, 7);
+        assertEquals(5, clues.getLowestStart(1));
+        assertEquals(7, clues.getHighestEnd(1));
+        clues.checkPlaced();
+        assertTrue(clues.isPlaced(1));
+        assertFalse(clues.isPlaced(0));
+    }
+
+    @Test
+    void copyRestoresPositionsAndPlacedClues() {
+        ClueRanges clues = new ClueRanges(new int[]{2, 3}, 10);
+        ClueRanges copy = new ClueRanges(clues);
+        clues.restorePositions(0, 1, 2);
+        clues.restorePositions(1, 4, 8);
+        assertTrue(clues.isPlaced(0));
+        clues.restore(copy);
+        assertFalse(clues.isPlaced(0));
+        assertEquals(0, clues.getLowestStart(0));
+        assertEquals(9, clues.getHighestEnd(1));
+    }
+
+    @Test
+    void viewChangesTheStoredPositions() {
+        ClueRanges clues = new ClueRanges(new int[]{2, 3}, 10);
+        Clue view = clues.get(1);
+        assertTrue(view.needsToContainCell(6));
+        assertEquals(4, clues.getLowestStart(1));
+        assertEquals(8, clues.getHighestEnd(1));
+        assertEquals(clues.getHighestStart(1), view.getHighestStart());
+        assertEquals(" 3", view.toString());
+        Clue lower = clues.get(0);
+        assertTrue(lower.calculateHighestPosition(view, new CellLine(10)));
+        assertEquals(4, clues.getHighestEnd(0));
+        assertEquals(8, Clue.initializeClue(2, 9).getHighestStart());
+    }
+
+    /**
+     * the range logic of a line has to be sound: every cell it deduces is deduced by the exact solver as well and it
+     * only finds a contradiction if the clues can not be placed at all
+     */
+    @Test
+    void lineLogicDeducesOnlyForcedCells() {
+        SplittableRandom random = new SplittableRandom(25);
+        for (int n = 0; n < 20_000; n++) {
+            int length = 1 + random.nextInt(30);
+            int[] clues = randomClues(random, length);
+            NonoLine line = new NonoLine(length, clues);
+            line.setExactSolver(LineSolver.NONE);
+            CellLine known = new CellLine(length);
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(6) == 0) {
+                    CellStatus status = random.nextBoolean() ? CellStatus.FILLED : CellStatus.EMPTY;
+                    line.setCellStatus(i, status);
+                    known.setCellStatus(i, status);
+                }
+            }
+            int[] placedClues = clues[0] == 0 ? new int[0] : clues;
+            CellLine exact = new CellLine(known);
+            int exactResult = DynamicLineSolver.INSTANCE.solve(placedClues, exact);
+            String description = Arrays.toString(clues) + " in I" + known + "I";
+            try {
+                while (line.solveStep()) ;
+            } catch (IllegalStateException e) {
+                assertEquals(LineSolver.CONTRADICTION, exactResult, "contradiction of " + description);
+                continue;
+            }
+            if (exactResult == LineSolver.CONTRADICTION) {
+                // the range logic alone is not complete, it may miss a contradiction
+                continue;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!line.getCells().isUnknown(i)) {
+                    assertEquals(exact.getStatus(i), line.getCells().getStatus(i), "cell " + i + " of " + description);
+                }
+            }
+        }
+    }
+
+    private static int[] randomClues(SplittableRandom random, int length) {
+        int[] clues = new int[length];
+        int count = 0;
+        int free = length;
+        while (free > 0 && (count == 0 || random.nextInt(3) != 0)) {
+            int clue = 1 + random.nextInt(Math.min(free, 6));
+            clues[count++] = clue;
+            free -= clue + 1;
+        }
+        return count == 0 ? new int[]{0} : Arrays.copyOf(clues, count);
+    }
+
+    static CellLine randomLine(SplittableRandom random, int length) {
+        CellLine cells = new CellLine(length);
+        for (int i = 0; i < length; i++) {
+            cells.setCellStatus(i, STATUSES[random.nextInt(STATUSES.length)]);
+        }
+        return cells;
+    }
+
+    /**
+     * the former search, which kept the candidate position as a list of statuses and dropped its beginning up to the
+     * first unknown cell, when a filled cell had to be covered
+     *
+     * @return the start of the position for {@link ClueRanges#GO_UP}, its end for {@link ClueRanges#GO_DOWN} or
+     * {@link #NO_FIT}
+     */
+    private static int statusListSweep(CellLine cells, int length, int direction, int startValue) {
+        int border = direction == ClueRanges.GO_UP ? cells.getLength() : 1;
+        LinkedList<CellStatus> statusList = new LinkedList<>();
+        boolean positionFound = false;
+        int iteratorPos;
+        for (iteratorPos = startValue; iteratorPos * direction < border && !positionFound; iteratorPos += direction) {
+            CellStatus status = cells.getStatus(iteratorPos);
+            switch (status) {
+                case EMPTY -> {
+                    if (statusList.size() == length) {
+                        positionFound = true;
+                    } else {
+                        statusList.clear();
+                    }
+                }
+                case FILLED -> {
+                    if (statusList.size() == length && statusList.contains(CellStatus.UNKNOWN)) {
+                        while (statusList.pop() != CellStatus.UNKNOWN) ;
+                    }
+                    statusList.add(status);
+                }
+                case UNKNOWN -> {
+                    if (statusList.size() > length) {
+                        statusList.clear();
+                    } else if (statusList.size() == length) {
+                        positionFound = true;
+                    } else {
+                        statusList.add(status);
+                    }
+                }
+            }
+            if (positionFound) {
+                iteratorPos -= direction;
+            }
+        }
+        if (statusList.size() != length) {
+            return NO_FIT;
+        }
+        return iteratorPos - (length * direction);
+    }
+}
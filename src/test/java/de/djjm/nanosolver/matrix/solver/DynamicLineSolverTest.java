@@ -0,0 +1,111 @@
+package de.djjm.nanosolver.matrix.solver;
+
+import de.djjm.nanosolver.matrix.cell.CellLine;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DynamicLineSolverTest {
+
+    /**
+     * compares the solver with the intersection of all placements of the clues, which are enumerated one by one
+     */
+    @Test
+    void deducesExactlyTheCellsOfAllPlacements() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int n = 0; n < 50_000; n++) {
+            int length = 1 + random.nextInt(14);
+            int[] clues = randomClues(random, length);
+            CellLine cells = randomKnownCells(random, length);
+            String before = cells.toString();
+            int unknownBefore = cells.countUnknown();
+
+            // the cells every placement fills and the cells every placement leaves empty
+            long[] intersection = {-1L, -1L};
+            int placements = enumerate(clues, 0, 0, 0L, cells, intersection);
+            int result = DynamicLineSolver.INSTANCE.solve(clues, cells);
+
+            String line = "clues " + Arrays.toString(clues) + " in I" + before + "I";
+            if (placements == 0) {
+                assertEquals(LineSolver.CONTRADICTION, result, line);
+                assertEquals(before, cells.toString(), line);
+                continue;
+            }
+            for (int i = 0; i < length; i++) {
+                CellStatus expected = CellStatus.UNKNOWN;
+                if ((intersection[0] >>> i & 1) != 0) {
+                    expected = CellStatus.FILLED;
+                } else if ((intersection[1] >>> i & 1) != 0) {
+                    expected = CellStatus.EMPTY;
+                }
+                assertEquals(expected, cells.getStatus(i), "cell " + i + " of " + line);
+            }
+            boolean changed = cells.countUnknown() < unknownBefore;
+            assertEquals(changed ? LineSolver.CHANGED : LineSolver.UNCHANGED, result, line);
+        }
+    }
+
+    /**
+     * @return random clues which fit into the line, sometimes without any clue
+     */
+    private static int[] randomClues(SplittableRandom random, int length) {
+        int[] clues = new int[length];
+        int count = 0;
+        int free = length;
+        while (free > 0 && random.nextInt(4) != 0) {
+            int clue = 1 + random.nextInt(free);
+            clues[count++] = clue;
+            free -= clue + 1;
+        }
+        return Arrays.copyOf(clues, count);
+    }
+
+    /**
+     * @return a line with some known cells, which do not always allow a placement of the clues
+     */
+    private static CellLine randomKnownCells(SplittableRandom random, int length) {
+        CellLine cells = new CellLine(length);
+        for (int i = 0; i < length; i++) {
+            int status = random.nextInt(5);
+            if (status == 0) {
+                cells.setCellStatus(i, CellStatus.FILLED);
+            } else if (status == 1) {
+                cells.setCellStatus(i, CellStatus.EMPTY);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * places the clues from the given one on at every position behind start, which agrees with the known cells
+     *
+     * @param filled       the cells filled by the clues placed so far
+     * @param intersection the filled and the empty cells of all complete placements found so far
+     * @return the number of complete placements
+     */
+    private static int enumerate(int[] clues, int clue, int start, long filled, CellLine cells, long[] intersection) {
+        int length = cells.getLength();
+        if (clue == clues.length) {
+            for (int i = 0; i < length; i++) {
+                boolean isFilled = (filled >>> i & 1) != 0;
+                if (cells.isFilled(i) && !isFilled || cells.isEmpty(i) && isFilled) {
+                    return 0;
+                }
+            }
+            long mask = length == 64 ? -1L : (1L << length) - 1;
+            intersection[0] &= filled;
+            intersection[1] &= ~filled & mask;
+            return 1;
+        }
+        int placements = 0;
+        for (int position = start; position + clues[clue] <= length; position++) {
+            long run = ((1L << clues[clue]) - 1) << position;
+            placements += enumerate(clues, clue + 1, position + clues[clue] + 1, filled | run, cells, intersection);
+        }
+        return placements;
+    }
+}
@@ -0,0 +1,72 @@
+package de.djjm.nanosolver.portfolio;
+
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.solver.LineSolutionCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioSolverTest {
+    private static final Nonogram CROSS =
+            new Puzzle("cross", new int[][]{{1}, {3}, {1}}, new int[][]{{1}, {3}, {1}}).toNonogram();
+
+    /**
+     * an IllegalStateException is no proof of a contradiction, the strategy drops out and the others continue the race
+     */
+    @Test
+    void failingStrategyDoesNotEndTheRace() {
+        SolverStrategy failing = SolverStrategy.of("failing", nonogram -> {
+            throw new IllegalStateException("strategy failed");
+        });
+        PortfolioResult result = race(List.of(failing, SolverStrategy.exactLineLogic()));
+        assertTrue(result.isSolved());
+        assertFalse(result.contradiction());
+        assertEquals("exact-line", result.winner());
+    }
+
+    @Test
+    void reportedContradictionEndsTheRace() {
+        SolverStrategy refuting = SolverStrategy.of("refuting", nonogram -> SolverStrategy.Outcome.NO_SOLUTION);
+        SolverStrategy givingUp = SolverStrategy.of("giving-up", nonogram -> SolverStrategy.Outcome.GAVE_UP);
+        PortfolioResult result = race(List.of(refuting, givingUp));
+        assertFalse(result.isSolved());
+        assertTrue(result.contradiction());
+    }
+
+    /**
+     * the copies of the strategies take the solution cache of the nonogram over, but the line logic must not use it,
+     * as the cache runs the exact line solver
+     */
+    @Test
+    void lineLogicDoesNotUseSolutionCache() {
+        LineSolutionCache cache = new LineSolutionCache(100);
+        Nonogram nonogram = new Puzzle("cross", new int[][]{{1}, {3}, {1}}, new int[][]{{1}, {3}, {1}}).toNonogram();
+        nonogram.setSolutionCache(cache);
+        PortfolioResult result = race(List.of(SolverStrategy.lineLogic()), nonogram);
+        assertTrue(result.isSolved());
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+
+        assertTrue(race(List.of(SolverStrategy.exactLineLogic()), nonogram).isSolved());
+        assertTrue(cache.getMissCount() > 0);
+    }
+
+    private static PortfolioResult race(List<SolverStrategy> strategies) {
+        return race(strategies, CROSS);
+    }
+
+    private static PortfolioResult race(List<SolverStrategy> strategies, Nonogram nonogram) {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            return new PortfolioSolver(strategies, executor).solve(nonogram);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
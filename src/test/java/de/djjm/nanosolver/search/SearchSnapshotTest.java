@@ -0,0 +1,107 @@
+package de.djjm.nanosolver.search;
+
+import de.djjm.nanosolver.generator.PuzzleGenerator;
+import de.djjm.nanosolver.io.Puzzle;
+import de.djjm.nanosolver.matrix.Nonogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchSnapshotTest {
+    /**
+     * a puzzle the line logic can not finish, so the search makes decisions before it finds a solution
+     */
+    private static final Puzzle PUZZLE = new PuzzleGenerator(17).random(0, new int[]{25, 25}, new int[]{25, 25}, 0.5);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * the snapshot written by the checkpointer during a search is read back and the search is resumed from it
+     */
+    @Test
+    void resumesSnapshotOfCheckpointer() throws IOException {
+        Path file = directory.resolve("search.snapshot");
+        BacktrackingSolver solver = new BacktrackingSolver();
+        Checkpointer checkpointer = new Checkpointer(file, 0);
+        solver.setCheckpointer(checkpointer);
+        assertTrue(solver.solve(PUZZLE.toNonogram()));
+        // closing waits for the snapshot written in the background
+        checkpointer.close();
+        assertTrue(checkpointer.getWrittenCount() > 0);
+
+        Nonogram resumed = PUZZLE.toNonogram();
+        assertTrue(new BacktrackingSolver().resume(resumed, Checkpointer.read(file)));
+        assertTrue(resumed.fulfillsClues());
+    }
+
+    /**
+     * the decisions of a snapshot are written, read back and repeated on resume, the search backtracks over them
+     */
+    @Test
+    void resumesDecisions() throws IOException {
+        Nonogram nonogram = PUZZLE.toNonogram();
+        SearchSnapshot.Start start = SearchSnapshot.captureStart(nonogram);
+        assertTrue(BacktrackingSolver.propagate(nonogram));
+        BacktrackingSolver.Decision decision = BranchingHeuristic.MOST_CONSTRAINED_LINE.chooseCell(nonogram);
+        byte[] written = write(SearchSnapshot.of(start, new int[]{decision.row, decision.column, 0}));
+
+        SearchSnapshot snapshot = SearchSnapshot.readFrom(new ByteArrayInputStream(written));
+        assertEquals(1, snapshot.getDepth());
+        assertArrayEquals(written, write(snapshot));
+        Nonogram resumed = PUZZLE.toNonogram();
+        assertTrue(new BacktrackingSolver().resume(resumed, snapshot));
+        assertTrue(resumed.fulfillsClues());
+    }
+
+    /**
+     * the counts are checked before anything is allocated, the cells and indices before they are used
+     */
+    @Test
+    void rejectsCorruptSnapshot() throws IOException {
+        Nonogram nonogram = PUZZLE.toNonogram();
+        BacktrackingSolver.propagate(nonogram);
+        byte[] valid = write(SearchSnapshot.of(SearchSnapshot.captureStart(nonogram), new int[]{3, 4, 0}));
+        // the header holds the magic, the version, the height and the width, the cells of the rows follow
+        assertRejected(valid, 8, Integer.MAX_VALUE);
+        assertRejected(valid, 12, -1);
+        int firstWord = 16;
+        assertRejected(valid, firstWord, -1);
+        int decidedRow = valid.length - 3 * Integer.BYTES;
+        assertRejected(valid, decidedRow, 25);
+        assertRejected(valid, decidedRow + 2 * Integer.BYTES, 2);
+        // a clue position outside of the line is rejected when it is read, one which does not fit the clue on resume
+        int firstCluePosition = firstWord + 2 * 25 * Long.BYTES + Integer.BYTES;
+        assertRejected(valid, firstCluePosition, 25);
+        SearchSnapshot overlapping = SearchSnapshot.readFrom(new ByteArrayInputStream(
+                replace(valid, firstCluePosition + Integer.BYTES, -1)));
+        assertThrows(IllegalArgumentException.class, () -> new BacktrackingSolver().resume(PUZZLE.toNonogram(), overlapping));
+    }
+
+    private static void assertRejected(byte[] valid, int offset, int value) {
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchSnapshot.readFrom(new ByteArrayInputStream(replace(valid, offset, value))));
+    }
+
+    private static byte[] replace(byte[] bytes, int offset, int value) {
+        byte[] replaced = bytes.clone();
+        ByteBuffer.wrap(replaced).putInt(offset, value);
+        return replaced;
+    }
+
+    private static byte[] write(SearchSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        snapshot.writeTo(output);
+        return output.toByteArray();
+    }
+}
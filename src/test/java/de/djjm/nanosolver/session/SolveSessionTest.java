@@ -0,0 +1,51 @@
+package de.djjm.nanosolver.session;
+
+import de.djjm.nanosolver.matrix.Nonogram;
+import de.djjm.nanosolver.matrix.cell.CellStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveSessionTest {
+
+    /**
+     * both diagonals fulfill the clues, so the line logic can not deduce anything before the first click
+     */
+    private static Nonogram diagonals() {
+        return new Nonogram(new int[][]{{1}, {1}}, new int[][]{{1}, {1}});
+    }
+
+    @Test
+    void clickDeducesTheRestOfTheGrid() {
+        List<CellChange> changes = new ArrayList<>();
+        SolveSession session = new SolveSession(diagonals(), changes::add);
+        assertTrue(changes.isEmpty());
+
+        assertTrue(session.setCell(0, 0, CellStatus.FILLED));
+        assertTrue(session.isSolved());
+        assertEquals(CellStatus.FILLED, session.getCellStatus(1, 1));
+        assertEquals(CellStatus.EMPTY, session.getCellStatus(0, 1));
+        assertEquals(new CellChange(0, 0, CellStatus.FILLED, CellChange.Origin.USER), changes.get(0));
+        assertEquals(4, changes.size());
+        assertFalse(session.setCell(0, 0, CellStatus.FILLED));
+    }
+
+    @Test
+    void contradictingClickIsRejectedAsAWhole() {
+        List<CellChange> changes = new ArrayList<>();
+        SolveSession session = new SolveSession(diagonals(), changes::add);
+        session.setCell(0, 0, CellStatus.FILLED);
+        changes.clear();
+
+        assertThrows(IllegalArgumentException.class, () -> session.setCell(0, 1, CellStatus.FILLED));
+        assertTrue(changes.isEmpty());
+        assertEquals(CellStatus.EMPTY, session.getCellStatus(0, 1));
+        assertTrue(session.getNonogram().fulfillsClues());
+    }
+}